@@ -0,0 +1,131 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.ProductWsApplication;
+import com.fripop.product.ws.model.Product;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Product web service application started against an embedded postgres database for benchmarking.
+ * <p>
+ * The schema is generated at startup, so every benchmark fork works with a fresh database.
+ *
+ * @since 1.0.0
+ */
+public class BenchmarkApplication implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    /**
+     * Starts an embedded postgres database and the application without a web server.
+     *
+     * @param args additional application arguments, for example {@code --property=value}
+     * @return started {@link BenchmarkApplication}
+     * @throws IOException when embedded postgres cannot be started
+     */
+    public static BenchmarkApplication start(String... args) throws IOException {
+        return start(WebApplicationType.NONE, args);
+    }
+
+    /**
+     * Starts an embedded postgres database and the application with a web server on a random port.
+     * <p>
+     * Statements can be delayed with the {@code --benchmark.database-latency=<duration>} argument, see
+     * {@link DatabaseLatency}.
+     *
+     * @param args additional application arguments, for example {@code --property=value}
+     * @return started {@link BenchmarkApplication}
+     * @throws IOException when embedded postgres cannot be started
+     */
+    public static BenchmarkApplication startServer(String... args) throws IOException {
+        var serverArgs = new ArrayList<>(List.of("--server.port=0"));
+        serverArgs.addAll(Arrays.asList(args));
+        return start(WebApplicationType.SERVLET, serverArgs.toArray(String[]::new));
+    }
+
+    private static BenchmarkApplication start(WebApplicationType webApplicationType, String... args) throws IOException {
+        var postgres = EmbeddedPostgres.builder().start();
+        // Create the extension of the database migration, which the application does not create.
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+        var applicationArgs = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        applicationArgs.addAll(Arrays.asList(args));
+
+        var context = new SpringApplicationBuilder(ProductWsApplication.class, DatabaseLatency.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .run(applicationArgs.toArray(String[]::new));
+
+        return new BenchmarkApplication(postgres, context);
+    }
+
+    /**
+     * Returns the application bean of the provided type.
+     *
+     * @param type bean type
+     * @param <T>  bean type
+     * @return bean
+     */
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Returns the base url of the web server started by {@link #startServer(String...)}.
+     *
+     * @return base url including the context path
+     */
+    public String getBaseUrl() {
+        var webServer = ((WebServerApplicationContext) context).getWebServer();
+        return "http://localhost:" + webServer.getPort() + context.getEnvironment().getProperty("server.servlet.context-path", "");
+    }
+
+    /**
+     * Inserts products with generated names, prices and timestamps and refreshes the planner statistics.
+     * <p>
+     * Names are built from a color, a material, an item and the id, for example {@code Blue silk scarf 42}.
+     *
+     * @param count number of products to insert
+     */
+    public void seedProducts(int count) {
+        var jdbcTemplate = getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                INSERT INTO product (id, code, created, active, name, price)
+                SELECT i, md5(i::text), now() - i * interval '1 second', i % 10 <> 0,
+                       (ARRAY['Red', 'Blue', 'Green', 'Black', 'White', 'Grey', 'Yellow', 'Orange'])[1 + i % 8] || ' ' ||
+                       (ARRAY['cotton', 'wool', 'linen', 'silk', 'denim'])[1 + i % 5] || ' ' ||
+                       (ARRAY['shirt', 'jacket', 'dress', 'scarf', 'sweater', 'hat', 'sock'])[1 + i % 7] || ' ' || i,
+                       round((1 + random() * 500)::numeric, 2)
+                FROM generate_series(1, ?) i
+                """, count);
+        jdbcTemplate.execute("SELECT setval('" + Product.ID_SEQUENCE + "', " + (count + 1) + ", false)");
+        jdbcTemplate.execute("ANALYZE product");
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.fripop.product.ws.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Injects latency into every statement executed by the application, simulating a slow or distant database.
+ * <p>
+ * The configured {@code benchmark.database-latency} is spent while a pooled connection is held, before a statement is
+ * prepared, so it occupies both the request thread and the connection like a slow database would.
+ *
+ * @since 1.0.0
+ */
+public class DatabaseLatency implements BeanPostProcessor {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private final long latencyMillis;
+
+    public DatabaseLatency(Environment environment) {
+        this.latencyMillis = environment.getProperty("benchmark.database-latency", Duration.class, Duration.ZERO).toMillis();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (latencyMillis <= 0 || !(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return delayed(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return delayed(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private Connection delayed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (STATEMENT_METHODS.contains(method.getName())) {
+                        Thread.sleep(latencyMillis);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,206 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fripop.product.ws.dto.CapturedRequestDto;
+import com.fripop.product.ws.util.RequestCaptureFilter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Replays requests captured by the {@link RequestCaptureFilter} against a running web service and reports latency
+ * percentiles per endpoint.
+ * <p>
+ * Requests are sent in open loop: every request is sent at its scheduled time whether or not the previous responses
+ * arrived, and its latency is measured from the scheduled time. A slow service therefore shows up as growing latency
+ * instead of a lower request rate. Requests are scheduled at a fixed rate or, without a rate, with the recorded
+ * intervals. Requests with bodies left out by the capture are skipped.
+ * <p>
+ * Arguments:
+ * <ul>
+ *     <li>{@code --url} - base url of the web service including the context path; required</li>
+ *     <li>{@code --file} - captured requests file; defaults to {@code captured-requests.jsonl}</li>
+ *     <li>{@code --rate} - requests per second; defaults to the recorded intervals</li>
+ *     <li>{@code --repeat} - number of times the file is replayed; defaults to {@code 1}</li>
+ *     <li>{@code --timeout} - maximum duration of a single request; defaults to {@code PT30S}</li>
+ * </ul>
+ *
+ * @since 1.0.0
+ */
+public class LoadGenerator {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private LoadGenerator(String baseUrl, Duration timeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newCachedThreadPool(runnable -> {
+                    var thread = new Thread(runnable, "load-generator");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var arguments = new HashMap<String, String>();
+        for (var index = 0; index + 1 < args.length; index += 2) {
+            arguments.put(args[index].replaceFirst("^--", ""), args[index + 1]);
+        }
+        if (!arguments.containsKey("url")) {
+            System.err.println("Usage: LoadGenerator --url <base url> [--file <captured requests>] [--rate <requests per second>] "
+                    + "[--repeat <count>] [--timeout <duration>]");
+            System.exit(1);
+        }
+
+        var objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        var requests = new ArrayList<CapturedRequestDto>();
+        var skippedRequests = 0;
+        try (var lines = Files.lines(Path.of(arguments.getOrDefault("file", "captured-requests.jsonl")), StandardCharsets.UTF_8)) {
+            for (var line : (Iterable<String>) lines::iterator) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                var request = objectMapper.readValue(line, CapturedRequestDto.class);
+                if (Boolean.TRUE.equals(request.getBodyTruncated())) {
+                    skippedRequests++;
+                } else {
+                    requests.add(request);
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            System.err.println("No requests to replay");
+            System.exit(1);
+        }
+
+        var loadGenerator = new LoadGenerator(arguments.get("url"), Duration.parse(arguments.getOrDefault("timeout", "PT30S")));
+        var rate = Double.parseDouble(arguments.getOrDefault("rate", "0"));
+        var repeat = Integer.parseInt(arguments.getOrDefault("repeat", "1"));
+        System.out.printf("Replaying %d requests %d times, skipped %d requests without body%n", requests.size(), repeat, skippedRequests);
+
+        var elapsed = loadGenerator.replay(requests, rate, repeat);
+        loadGenerator.report(elapsed);
+        System.exit(0);
+    }
+
+    /**
+     * Sends all requests at their scheduled times and waits for all responses.
+     *
+     * @param requests captured requests ordered by time
+     * @param rate     requests per second, or {@code 0} for the recorded intervals
+     * @param repeat   number of times the requests are sent
+     * @return nanoseconds from the first scheduled request until the last response
+     * @throws InterruptedException when interrupted
+     */
+    private long replay(List<CapturedRequestDto> requests, double rate, int repeat) throws InterruptedException {
+        var firstTimestamp = requests.get(0).getTimestamp();
+        var recordedNanos = TimeUnit.MILLISECONDS.toNanos(requests.get(requests.size() - 1).getTimestamp() - firstTimestamp);
+        var recordedInterval = requests.size() > 1 ? recordedNanos / (requests.size() - 1) : 0;
+        var pendingResponses = new CountDownLatch(requests.size() * repeat);
+
+        var start = System.nanoTime();
+        var sent = 0L;
+        for (var pass = 0; pass < repeat; pass++) {
+            for (var request : requests) {
+
+                // Schedule the request independently of earlier responses.
+                var scheduled = start + (rate > 0
+                        ? (long) (sent * TimeUnit.SECONDS.toNanos(1) / rate)
+                        : pass * (recordedNanos + recordedInterval) + TimeUnit.MILLISECONDS.toNanos(request.getTimestamp() - firstTimestamp));
+                long delay;
+                while ((delay = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                send(request, scheduled, pendingResponses);
+                sent++;
+            }
+        }
+
+        pendingResponses.await();
+        return System.nanoTime() - start;
+    }
+
+    private void send(CapturedRequestDto request, long scheduled, CountDownLatch pendingResponses) {
+        var endpoint = endpoints.computeIfAbsent(request.getMethod() + " " + ID_SEGMENT.matcher(request.getPath()).replaceAll("/{id}"),
+                name -> new Endpoint());
+
+        var uri = baseUrl + request.getPath() + (request.getQuery() != null ? "?" + request.getQuery() : "");
+        var builder = HttpRequest.newBuilder(URI.create(uri)).timeout(timeout);
+        if (request.getBody() != null) {
+            builder.header("Content-Type", request.getContentType());
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.ofString(request.getBody()));
+        } else {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            endpoint.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+            if (error != null || response.statusCode() >= 500) {
+                endpoint.failures.incrementAndGet();
+            } else if (response.statusCode() >= 400) {
+                endpoint.clientErrors.incrementAndGet();
+            }
+            pendingResponses.countDown();
+        });
+    }
+
+    private void report(long elapsedNanos) {
+        var total = new Histogram(3);
+        var format = "%-40s %9s %9s %9s %10s %10s %10s %10s %10s%n";
+        System.out.printf(format, "Endpoint", "Requests", "4xx", "Failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (var entry : new TreeMap<>(endpoints).entrySet()) {
+            var endpoint = entry.getValue();
+            total.add(endpoint.latency);
+            System.out.printf(format, entry.getKey(), endpoint.latency.getTotalCount(), endpoint.clientErrors.get(),
+                    endpoint.failures.get(), millis(endpoint.latency, 50), millis(endpoint.latency, 90),
+                    millis(endpoint.latency, 99), millis(endpoint.latency, 99.9), millis(endpoint.latency, 100));
+        }
+        System.out.printf(format, "Total", total.getTotalCount(), "", "", millis(total, 50), millis(total, 90),
+                millis(total, 99), millis(total, 99.9), millis(total, 100));
+        System.out.printf("Achieved %.1f requests per second%n", total.getTotalCount() * 1e9 / elapsedNanos);
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return String.format("%.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    /**
+     * Latency and error counts of a single endpoint.
+     */
+    private static class Endpoint {
+
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final AtomicLong clientErrors = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+    }
+}
@@ -0,0 +1,71 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.util.Logger;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures logging a product change per request with a concatenated message, as the controllers did before, and with
+ * the parameterized {@link Logger} methods.
+ * <p>
+ * Loggers are asynchronous as in the application, but events are written to a null appender, so only the work of the
+ * request thread is compared. Run with the gc profiler to see the allocation per logged message; with a disabled level
+ * the concatenated message is still built.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+
+    /**
+     * Level of the loggers; messages are logged at info level.
+     */
+    @Param({"INFO", "WARN"})
+    public String level;
+
+    private org.apache.logging.log4j.Logger log4jLogger;
+    private Logger logger;
+    private long id = 1000000;
+
+    @Setup
+    public void setUp() {
+        var builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.add(builder.newAppender("Null", "Null"));
+        builder.add(builder.newRootLogger(Level.valueOf(level)).add(builder.newAppenderRef("Null")));
+        Configurator.reconfigure(builder.build());
+
+        log4jLogger = LogManager.getLogger(LoggerBenchmark.class);
+        logger = Logger.getLogger(LoggerBenchmark.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        LogManager.shutdown();
+    }
+
+    /**
+     * Logs a message concatenated with the product id.
+     */
+    @Benchmark
+    public void concatenated() {
+        log4jLogger.info("Updated product with id: " + id++);
+    }
+
+    /**
+     * Logs a parameterized message with the product id.
+     */
+    @Benchmark
+    public void parameterized() {
+        logger.info("Updated product with id: {}", id++);
+    }
+}
@@ -0,0 +1,123 @@
+package com.fripop.product.ws.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request handling on platform and virtual threads while the database is slow.
+ * <p>
+ * Most clients read product pages, which wait for the injected database latency, while the rest read a cached product
+ * that needs no database access. With platform threads the Tomcat pool is exhausted by requests waiting for the
+ * database and cached reads queue behind them; with virtual threads only the connection pool limits the database
+ * reads. Throughput and latency percentiles are reported for both kinds of requests. The virtual thread mode requires
+ * a Java 21 runtime, which can be selected with the {@code -jvm} JMH option.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ProductConcurrencyBenchmark {
+
+    /**
+     * Whether requests are handled on virtual threads.
+     */
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    /**
+     * Latency added to every database statement.
+     */
+    @Param({"50ms"})
+    public String databaseLatency;
+
+    /**
+     * Maximum number of platform request threads.
+     */
+    @Param({"32"})
+    public int maxThreads;
+
+    /**
+     * Maximum number of database connections.
+     */
+    @Param({"8"})
+    public int poolSize;
+
+    private BenchmarkApplication application;
+    private HttpClient httpClient;
+    private HttpRequest pageRequest;
+    private HttpRequest cachedProductRequest;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21, select it with the -jvm option");
+        }
+
+        application = BenchmarkApplication.startServer(
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--benchmark.database-latency=" + databaseLatency,
+                "--server.tomcat.threads.max=" + maxThreads,
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.connection-timeout=60000",
+                "--product.cache.ttl=1h");
+        application.seedProducts(1000);
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        pageRequest = HttpRequest.newBuilder(URI.create(application.getBaseUrl() + "/products?count=NONE&size=20")).build();
+        cachedProductRequest = HttpRequest.newBuilder(URI.create(application.getBaseUrl() + "/products/1")).build();
+
+        // Read the product once so that it is served from the cache.
+        send(cachedProductRequest);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    /**
+     * Reads a page of products from the database.
+     *
+     * @return response status
+     * @throws IOException          when request fails
+     * @throws InterruptedException when interrupted
+     */
+    @Benchmark
+    @Group("slowDatabase")
+    @GroupThreads(64)
+    public int pageRead() throws IOException, InterruptedException {
+        return send(pageRequest);
+    }
+
+    /**
+     * Reads a cached product.
+     *
+     * @return response status
+     * @throws IOException          when request fails
+     * @throws InterruptedException when interrupted
+     */
+    @Benchmark
+    @Group("slowDatabase")
+    @GroupThreads(8)
+    public int cachedRead() throws IOException, InterruptedException {
+        return send(cachedProductRequest);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        var status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("Unexpected response status " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.dto.ProductCreateDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.mapper.ProductMapper;
+import com.fripop.product.ws.mapper.ProductMapperImpl;
+import com.fripop.product.ws.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link ProductMapper} conversions of single products and of whole pages.
+ * <p>
+ * The generated mapper is used directly, so no application or database is started.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    /**
+     * Number of products on a page.
+     */
+    @Param({"100"})
+    public int pageSize;
+
+    private ProductMapper productMapper;
+    private ProductCreateDto productCreate;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapperImpl();
+        productCreate = new ProductCreateDto("code-1", true, "Blue silk scarf 1", new BigDecimal("19.99"));
+
+        products = new ArrayList<>(pageSize);
+        for (var index = 0; index < pageSize; index++) {
+            var product = new Product();
+            product.setId((long) index);
+            product.setCode("code-" + index);
+            product.setCreated(new Timestamp(System.currentTimeMillis()));
+            product.setActive(true);
+            product.setName("Blue silk scarf " + index);
+            product.setPrice(new BigDecimal("19.99"));
+            products.add(product);
+        }
+    }
+
+    /**
+     * Converts a create request to an entity.
+     *
+     * @return {@link Product}
+     */
+    @Benchmark
+    public Product productCreateToProduct() {
+        return productMapper.productCreateToProduct(productCreate);
+    }
+
+    /**
+     * Converts a single entity.
+     *
+     * @return {@link ProductDto}
+     */
+    @Benchmark
+    public ProductDto productToProductDto() {
+        return productMapper.productToProductDto(products.get(0));
+    }
+
+    /**
+     * Converts a page of entities.
+     *
+     * @return {@link List} with {@link ProductDto}s
+     */
+    @Benchmark
+    public List<ProductDto> pageToProductDtos() {
+        return products.stream().map(productMapper::productToProductDto).toList();
+    }
+}
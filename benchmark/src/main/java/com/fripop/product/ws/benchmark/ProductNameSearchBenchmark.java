@@ -0,0 +1,102 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.dto.CountMode;
+import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.exception.BadRequestException;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the trigram indexed name search of {@link ProductService#findAll} with the previous leading wildcard like
+ * filter.
+ * <p>
+ * Both searches read the first page of 20 products together with the total number of matching products.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductNameSearchBenchmark {
+
+    /**
+     * Number of products in the database.
+     */
+    @Param({"500000"})
+    public int products;
+
+    /**
+     * Searched name; a selective and a common one.
+     */
+    @Param({"scarf 4242", "silk"})
+    public String name;
+
+    private BenchmarkApplication application;
+    private ProductRepository productRepository;
+    private ProductService productService;
+    private PageRequest pageRequest;
+    private PageRequest relevancePageRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        application.seedProducts(products);
+        productRepository = application.getBean(ProductRepository.class);
+        productService = application.getBean(ProductService.class);
+        pageRequest = PageRequest.of(0, 20);
+        relevancePageRequest = PageRequest.of(0, 20, Sort.by(ProductRepository.RELEVANCE));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    /**
+     * Case-sensitive {@code name LIKE '%name%'} filter used before the trigram index was introduced.
+     *
+     * @return {@link Page} with {@link ProductDto}s
+     */
+    @Benchmark
+    public Page<ProductDto> likeSearch() {
+        Specification<Product> specification = (root, query, builder) -> builder.like(root.get("name"), "%" + name + "%");
+        var products = productRepository.findDtoSlice(specification, pageRequest).getContent();
+        return PageableExecutionUtils.getPage(products, pageRequest, () -> productRepository.count(specification));
+    }
+
+    /**
+     * Case-insensitive trigram indexed search.
+     *
+     * @return {@link ObjectsResponseDto} with {@link ProductDto}s
+     * @throws BadRequestException when sorting is not supported
+     */
+    @Benchmark
+    public ObjectsResponseDto<ProductDto> trigramSearch() throws BadRequestException {
+        return productService.findAll(name, null, null, null, CountMode.EXACT, null, pageRequest);
+    }
+
+    /**
+     * Case-insensitive trigram indexed search ordered by relevance.
+     *
+     * @return {@link ObjectsResponseDto} with {@link ProductDto}s
+     * @throws BadRequestException when sorting is not supported
+     */
+    @Benchmark
+    public ObjectsResponseDto<ProductDto> trigramRelevanceSearch() throws BadRequestException {
+        return productService.findAll(name, null, null, null, CountMode.EXACT, null, relevancePageRequest);
+    }
+}
@@ -0,0 +1,114 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.mapper.ProductMapper;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading {@link ProductDto}s through managed {@link Product} entities and the {@link ProductMapper} with
+ * selecting the columns directly into {@link ProductDto}s.
+ * <p>
+ * Every operation runs in a read-only transaction, like the service methods. Run with {@code -prof gc} to see the
+ * allocation rate per operation.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductReadBenchmark {
+
+    /**
+     * Number of products in the database.
+     */
+    @Param({"100000"})
+    public int products;
+
+    /**
+     * Number of products on a page.
+     */
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private BenchmarkApplication application;
+    private ProductRepository productRepository;
+    private ProductMapper productMapper;
+    private TransactionTemplate transactionTemplate;
+    private Specification<Product> specification;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        application.seedProducts(products);
+        productRepository = application.getBean(ProductRepository.class);
+        productMapper = application.getBean(ProductMapper.class);
+        transactionTemplate = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        specification = ProductRepository.filter(null, null, null, true);
+        pageRequest = PageRequest.of(10, pageSize, Sort.by("id"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    /**
+     * Reads a page of managed entities and maps them, as the service did before the projections.
+     *
+     * @return {@link List} with {@link ProductDto}s
+     */
+    @Benchmark
+    public List<ProductDto> entityPage() {
+        return transactionTemplate.execute(status -> productRepository.findSlice(specification, pageRequest).getContent()
+                .stream().map(productMapper::productToProductDto).toList());
+    }
+
+    /**
+     * Reads a page of projections.
+     *
+     * @return {@link List} with {@link ProductDto}s
+     */
+    @Benchmark
+    public List<ProductDto> projectionPage() {
+        return transactionTemplate.execute(status -> productRepository.findDtoSlice(specification, pageRequest).getContent());
+    }
+
+    /**
+     * Reads a single managed entity and maps it.
+     *
+     * @return {@link ProductDto}
+     */
+    @Benchmark
+    public ProductDto entityFind() {
+        var id = ThreadLocalRandom.current().nextLong(1, products + 1);
+        return transactionTemplate.execute(status -> productMapper.productToProductDto(productRepository.findById(id).orElseThrow()));
+    }
+
+    /**
+     * Reads a single projection.
+     *
+     * @return {@link ProductDto}
+     */
+    @Benchmark
+    public ProductDto projectionFind() {
+        var id = ThreadLocalRandom.current().nextLong(1, products + 1);
+        return transactionTemplate.execute(status -> productRepository.findDtoById(id).orElseThrow());
+    }
+}
@@ -0,0 +1,76 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fripop.product.ws.config.CborConfiguration;
+import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of an {@link ObjectsResponseDto} page of {@link ProductDto}s by page size and
+ * representation.
+ * <p>
+ * The {@link ObjectMapper}s are built with the same defaults as the ones used by the web service and the output is
+ * discarded, like it would be streamed to a client. The size of the serialized page is printed once per trial.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    /**
+     * Number of products on a page.
+     */
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    /**
+     * Representation of the page, either {@code JSON} or {@code CBOR}.
+     */
+    @Param({"JSON", "CBOR"})
+    public String format;
+
+    private ObjectWriter pageWriter;
+    private ObjectsResponseDto<ProductDto> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = "CBOR".equals(format)
+                ? CborConfiguration.cborObjectMapper()
+                : Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        pageWriter = objectMapper.writerFor(ObjectsResponseDto.class);
+
+        var products = new ArrayList<ProductDto>(pageSize);
+        for (var index = 0; index < pageSize; index++) {
+            products.add(new ProductDto((long) index, "code-" + index, new Timestamp(System.currentTimeMillis()), null, true,
+                    "Blue silk scarf " + index, new BigDecimal("19.99")));
+        }
+        page = new ObjectsResponseDto<>(100000L, products, null, true);
+        System.out.println(format + " page of " + pageSize + " products: " + pageWriter.writeValueAsBytes(page).length + " bytes");
+    }
+
+    /**
+     * Serializes a page of products.
+     *
+     * @throws IOException when serialization fails
+     */
+    @Benchmark
+    public void serializePage() throws IOException {
+        pageWriter.writeValue(OutputStream.nullOutputStream(), page);
+    }
+}
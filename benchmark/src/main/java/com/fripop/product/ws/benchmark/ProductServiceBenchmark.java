@@ -0,0 +1,91 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.dto.CountMode;
+import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.exception.BadRequestException;
+import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ProductService#findAll} and {@link ProductService#findRequired} end to end against an embedded
+ * database, including transactions, queries and mapping.
+ * <p>
+ * Latency is sampled, so percentiles are reported next to the average.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    /**
+     * Number of products in the database.
+     */
+    @Param({"100000"})
+    public int products;
+
+    private BenchmarkApplication application;
+    private ProductService productService;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        application.seedProducts(products);
+        productService = application.getBean(ProductService.class);
+        pageRequest = PageRequest.of(10, 20, Sort.by("price", "id"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    /**
+     * Lists a page of active products matching a name.
+     *
+     * @param listState {@link ListState} with the counting mode
+     * @return {@link ObjectsResponseDto} with {@link ProductDto}s
+     * @throws BadRequestException when sorting is not supported
+     */
+    @Benchmark
+    public ObjectsResponseDto<ProductDto> findAll(ListState listState) throws BadRequestException {
+        return productService.findAll("silk", null, null, true, listState.countMode, null, pageRequest);
+    }
+
+    /**
+     * Reads a random product by id.
+     *
+     * @return {@link ProductDto}
+     * @throws NotFoundException when product does not exist
+     */
+    @Benchmark
+    public ProductDto findRequired() throws NotFoundException {
+        return productService.findRequired(ThreadLocalRandom.current().nextLong(1, products + 1));
+    }
+
+    /**
+     * Parameters used only when listing products.
+     */
+    @State(Scope.Benchmark)
+    public static class ListState {
+
+        /**
+         * Total number counting mode of the listed products.
+         */
+        @Param({"EXACT", "NONE"})
+        public CountMode countMode;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fripop.product.ws.benchmark;
+
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Measures building the {@code findAll} {@link Specification} and turning it into a query, without executing it.
+ * <p>
+ * Each benchmark includes the steps of the previous one: combining the filter specifications, building the criteria
+ * query with the projection, predicates and order, and creating the Hibernate query from it.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSpecificationBenchmark {
+
+    /**
+     * Whether all filters are set or none of them.
+     */
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private BenchmarkApplication application;
+    private EntityManager entityManager;
+    private String name;
+    private BigDecimal priceStart;
+    private BigDecimal priceEnd;
+    private Boolean active;
+    private Sort sort;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        entityManager = application.getBean(EntityManagerFactory.class).createEntityManager();
+        if (filtered) {
+            name = "silk";
+            priceStart = new BigDecimal("10");
+            priceEnd = new BigDecimal("100");
+            active = true;
+        }
+        sort = Sort.by("price", "id");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        entityManager.close();
+        application.close();
+    }
+
+    /**
+     * Combines the filter specifications.
+     *
+     * @return {@link Specification}
+     */
+    @Benchmark
+    public Specification<Product> specification() {
+        return ProductRepository.filter(name, priceStart, priceEnd, active).and(ProductRepository.relevance(name, sort));
+    }
+
+    /**
+     * Builds the criteria query selecting {@link ProductDto}s.
+     *
+     * @return {@link CriteriaQuery}
+     */
+    @Benchmark
+    public CriteriaQuery<ProductDto> criteriaQuery() {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(ProductDto.class);
+        var root = query.from(Product.class);
+        query.select(builder.construct(ProductDto.class, root.get("id"), root.get("code"), root.get("created"),
+                root.get("updated"), root.get("active"), root.get("name"), root.get("price")));
+
+        var predicate = specification().toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, builder));
+        return query;
+    }
+
+    /**
+     * Creates the Hibernate query from the criteria query.
+     *
+     * @return {@link TypedQuery}
+     */
+    @Benchmark
+    public TypedQuery<ProductDto> typedQuery() {
+        return entityManager.createQuery(criteriaQuery()).setMaxResults(21);
+    }
+}
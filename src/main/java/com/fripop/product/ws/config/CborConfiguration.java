@@ -0,0 +1,38 @@
+package com.fripop.product.ws.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Configuration of the compact binary CBOR representation of responses and requests.
+ * <p>
+ * Clients that send {@code Accept: application/cbor} receive the same objects as with JSON, encoded as CBOR. Numbers
+ * are written in their binary form, prices as decimal fractions with an integer mantissa and a scale, and timestamps
+ * as epoch milliseconds, so nothing is formatted as text. Requests with {@code Content-Type: application/cbor} are read
+ * the same way.
+ *
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class CborConfiguration {
+
+    /**
+     * Creates the {@link ObjectMapper} writing CBOR.
+     *
+     * @return CBOR {@link ObjectMapper}
+     */
+    public static ObjectMapper cborObjectMapper() {
+        return Jackson2ObjectMapperBuilder.cbor()
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+    }
+}
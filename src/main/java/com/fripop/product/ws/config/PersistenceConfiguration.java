@@ -0,0 +1,119 @@
+package com.fripop.product.ws.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the blocking JPA and the reactive R2DBC access to the same database.
+ * <p>
+ * Spring Boot does not configure a JDBC {@link DataSource} once an R2DBC {@link ConnectionFactory} exists, so the
+ * data source, its transaction manager and the {@code schema.sql} initializer are declared here with the same
+ * properties. The initializer properties are enabled here as well, since Spring Boot only enables them when the script
+ * is executed. Both transaction managers are declared, since the auto-configured R2DBC transaction manager would
+ * otherwise prevent the JPA one; the JPA transaction manager is the primary one.
+ * <p>
+ * When replicas are configured, connections of read-only JPA transactions are taken from the
+ * {@link ReplicaRoutingDataSource} and all other connections from the primary. The routing is decided when the first
+ * statement of a transaction is executed, after the transaction has been marked read-only. Tasks of the application
+ * task executor, which also processes asynchronous requests, read from the primary when the submitting thread does.
+ * Reactive access always uses the primary.
+ *
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class PersistenceConfiguration {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${product.replica.urls:}' != ''")
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                      @Value("${product.replica.urls}") List<String> replicaUrls) {
+
+        // Replica pools share the settings and credentials of the primary pool.
+        var replicas = new ArrayList<HikariDataSource>(replicaUrls.size());
+        for (var index = 0; index < replicaUrls.size(); index++) {
+            var config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(index).trim());
+            config.setPoolName("HikariPool-replica-" + (index + 1));
+            config.setReadOnly(true);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ObjectProvider<ReplicaRoutingDataSource> replicaDataSource) {
+        var replicaRoutingDataSource = replicaDataSource.getIfAvailable();
+        if (replicaRoutingDataSource == null) {
+            return primaryDataSource;
+        }
+
+        // Defer taking a connection until the read-only flag of the transaction is known.
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${product.replica.urls:}' != ''")
+    public TaskDecorator primaryRequiredTaskDecorator() {
+        return ReplicaRoutingDataSource::propagatePrimaryRequired;
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                      SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        var transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public R2dbcTransactionManager reactiveTransactionManager(ConnectionFactory connectionFactory) {
+        return new R2dbcTransactionManager(connectionFactory);
+    }
+}
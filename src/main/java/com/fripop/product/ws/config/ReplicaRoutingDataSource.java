@@ -0,0 +1,95 @@
+package com.fripop.product.ws.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ReplicaRoutingDataSource} hands out connections of read-only transactions.
+ * <p>
+ * Connections are taken from the replicas in round-robin order. While the primary is required for the current thread,
+ * for example because its client has just written, connections are taken from the primary instead so that the client
+ * reads its own writes even when the replicas lag behind. Tasks handed to other threads, like asynchronous request
+ * processing, keep the requirement of the submitting thread when decorated by {@link #propagatePrimaryRequired}.
+ *
+ * @since 1.0.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        this.replicas = replicas;
+
+        var targetDataSources = new HashMap<Object, Object>();
+        for (var index = 0; index < replicas.size(); index++) {
+            targetDataSources.put(index, replicas.get(index));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Requires read-only transactions of the current thread to read from the primary.
+     *
+     * @param primaryRequired {@code true} to read from the primary
+     */
+    public static void setPrimaryRequired(boolean primaryRequired) {
+        if (primaryRequired) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Checks whether read-only transactions of the current thread read from the primary.
+     *
+     * @return {@code true} when the primary is required
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * Decorates a task to require the primary on its thread when the submitting thread requires it.
+     *
+     * @param task {@link Runnable} handed to another thread
+     * @return decorated {@link Runnable}
+     */
+    public static Runnable propagatePrimaryRequired(Runnable task) {
+        var primaryRequired = isPrimaryRequired();
+        return () -> {
+            var previousPrimaryRequired = isPrimaryRequired();
+            setPrimaryRequired(primaryRequired);
+            try {
+                task.run();
+            } finally {
+                setPrimaryRequired(previousPrimaryRequired);
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+
+        // Fall back to the primary when it is required.
+        if (PRIMARY_REQUIRED.get() != null) {
+            return null;
+        }
+        return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,32 @@
+package com.fripop.product.ws.config;
+
+import com.fripop.product.ws.util.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of request execution on virtual threads.
+ * <p>
+ * Spring Boot uses virtual threads only on a Java 21 or newer runtime and silently keeps the platform thread pools on
+ * older ones, so the operator is warned when virtual threads are enabled but not used.
+ *
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * First Java version supporting virtual threads.
+     */
+    public static final int MINIMUM_JAVA_VERSION = 21;
+
+    private final Logger logger = Logger.getLogger(VirtualThreadConfiguration.class);
+
+    public VirtualThreadConfiguration() {
+        var javaVersion = Runtime.version().feature();
+        if (javaVersion < MINIMUM_JAVA_VERSION) {
+            logger.warn("Virtual threads are enabled but not supported on Java {}, requests are handled by platform threads", javaVersion);
+        }
+    }
+}
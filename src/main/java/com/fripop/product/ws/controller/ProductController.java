@@ -1,12 +1,33 @@
 package com.fripop.product.ws.controller;
 
+import com.fripop.product.ws.dto.CountMode;
+import com.fripop.product.ws.dto.DataFormat;
 import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductBatchResultDto;
+import com.fripop.product.ws.dto.ProductChangeDto;
 import com.fripop.product.ws.dto.ProductCreateDto;
 import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.dto.ProductImportResultDto;
+import com.fripop.product.ws.dto.ProductLookupDto;
+import com.fripop.product.ws.dto.ProductLookupResultDto;
+import com.fripop.product.ws.dto.PaginationMode;
+import com.fripop.product.ws.dto.ProductPatchDto;
 import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.dto.SparseProductDto;
+import com.fripop.product.ws.exception.BadRequestException;
 import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.exception.ServiceUnavailableException;
+import com.fripop.product.ws.model.ProductVersion;
+import com.fripop.product.ws.service.ProductChangeFeed;
+import com.fripop.product.ws.service.ProductDeltaService;
+import com.fripop.product.ws.service.ProductExporter;
+import com.fripop.product.ws.service.ProductImporter;
+import com.fripop.product.ws.service.ProductJsonCache;
 import com.fripop.product.ws.service.ProductService;
+import com.fripop.product.ws.service.ProductUpdateBuffer;
 import com.fripop.product.ws.util.Logger;
+import com.fripop.product.ws.util.ProductETag;
+import com.fripop.product.ws.util.ProductFields;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,19 +35,34 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * {@link ProductController} handles product related requests.
@@ -40,8 +76,26 @@ import java.math.BigDecimal;
 @Validated
 public class ProductController {
 
+    /**
+     * Maximum number of products that can be created with a single batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    /**
+     * Maximum number of ids and codes that can be looked up with a single request.
+     */
+    public static final int MAX_LOOKUP_SIZE = 10000;
+
+    private static final String CBOR = "cbor";
+
     private final Logger logger = Logger.getLogger(ProductController.class);
     private final ProductService productService;
+    private final ProductJsonCache productJsonCache;
+    private final ProductExporter productExporter;
+    private final ProductImporter productImporter;
+    private final Optional<ProductUpdateBuffer> productUpdateBuffer;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductDeltaService productDeltaService;
 
     /**
      * Handles requests for creating a new product.
@@ -61,90 +115,499 @@ public class ProductController {
 
         // Create a new product.
         var createdProduct = productService.create(productCreate);
-        logger.info("Created product with id: " + createdProduct.getId());
+        logger.info("Created product with id: {}", createdProduct.getId());
 
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    /**
+     * Handles requests for creating multiple new products.
+     * <p>
+     * Every item is validated separately and rejected items do not prevent the valid ones from being created.
+     *
+     * @param productCreates {@link ProductCreateDto}s with creation information
+     * @return {@link ObjectsResponseDto} containing a {@link ProductBatchResultDto} for every item in the input order
+     */
+    @RequestMapping(method = RequestMethod.POST, value = "/batch")
+    @Operation(operationId = "createProducts", summary = "Create multiple new products", description = "Handles requests for creating multiple new products in a single batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<ObjectsResponseDto<ProductBatchResultDto>> createAll(@Parameter(description = "Products to be created", required = true)
+                                                                               @NotEmpty(message = "At least one product must be provided.")
+                                                                               @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " products can be created at once.")
+                                                                               @RequestBody List<ProductCreateDto> productCreates) {
+
+        // Create new products.
+        var results = productService.createAll(productCreates);
+        logger.info("Created products in batch of size: {}", productCreates.size());
+
+        return new ResponseEntity<>(results, HttpStatus.CREATED);
+    }
+
+    /**
+     * Handles requests for importing products from a newline delimited JSON or CSV stream.
+     * <p>
+     * The request body is read as a stream and valid products are inserted in chunks, so the import size is not limited
+     * by memory. Invalid or too long lines and products with an existing code are rejected without stopping the import.
+     *
+     * @param format  {@link DataFormat} of the request body
+     * @param request {@link HttpServletRequest} with the request body
+     * @return {@link ProductImportResultDto} with the numbers of imported products and rejected lines
+     * @throws IOException         when reading the request body fails
+     * @throws BadRequestException when CSV header is not valid
+     */
+    @RequestMapping(method = RequestMethod.POST, value = "/import")
+    @Operation(operationId = "importProducts", summary = "Import products", description = "Handles requests for creating products from a newline delimited JSON or CSV stream",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Products to be created, one per line", required = true, content = {
+                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = ProductCreateDto.class)),
+                    @Content(mediaType = "text/csv", schema = @Schema(type = "string", example = "code,active,name,price"))
+            }))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<ProductImportResultDto> importAll(@Parameter(description = "Import format", example = "CSV") @RequestParam(name = "format", defaultValue = "NDJSON") DataFormat format,
+                                                            HttpServletRequest request)
+            throws IOException, BadRequestException {
+
+        // Import products from the request body.
+        var result = productImporter.importProducts(format, request.getInputStream());
+        logger.info("Imported {} products and rejected {} lines", result.getImported(), result.getRejected());
+
+        return new ResponseEntity<>(result, HttpStatus.CREATED);
+    }
+
     /**
      * Handles requests for updating an existing product.
+     * <p>
+     * When the {@link ProductUpdateBuffer} is enabled, the update is only accepted and written later together with
+     * other updates, so {@link HttpStatus#ACCEPTED} is returned and updates of products that do not exist are dropped.
      *
      * @param id            existing product id
      * @param productUpdate {@link ProductUpdateDto} with update information
-     * @return {@link ResponseEntity} with {@link HttpStatus#NO_CONTENT}
-     * @throws NotFoundException when product does not exist
+     * @return {@link ResponseEntity} with {@link HttpStatus#NO_CONTENT}, or {@link HttpStatus#ACCEPTED} when buffered
+     * @throws NotFoundException           when product does not exist
+     * @throws ServiceUnavailableException when the update buffer is full
      */
     @RequestMapping(method = RequestMethod.PUT, value = "/{id}")
     @Operation(operationId = "updateProduct", summary = "Update an existing product", description = "Handles requests for updating an existing product")
     @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Accepted"),
             @ApiResponse(responseCode = "204", description = "Success"),
             @ApiResponse(responseCode = "404", description = "Not found"),
-            @ApiResponse(responseCode = "500", description = "Unexpected error")
+            @ApiResponse(responseCode = "500", description = "Unexpected error"),
+            @ApiResponse(responseCode = "503", description = "Update buffer is full")
     })
     public ResponseEntity<String> update(@Parameter(description = "Product id", required = true, example = "1") @PathVariable long id,
                                          @Parameter(description = "Product to be updated", required = true) @Valid @NotNull @RequestBody ProductUpdateDto productUpdate)
-            throws NotFoundException {
+            throws NotFoundException, ServiceUnavailableException {
+
+        // Accept the update to be written later.
+        if (productUpdateBuffer.isPresent()) {
+            productUpdateBuffer.get().submit(id, productUpdate);
+            logger.info("Accepted update of product with id: {}", id);
+
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        }
 
         // Update an existing product.
         productService.update(id, productUpdate);
-        logger.info("Updated product with id: " + id);
+        logger.info("Updated product with id: {}", id);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     /**
-     * Handles requests for reading a product by id.
+     * Handles requests for creating or updating a product by code.
+     * <p>
+     * The product is updated when a product has the code and created otherwise. An update of the product accepted by
+     * the {@link ProductUpdateBuffer} is written first, so it does not overwrite this one later.
      *
-     * @param id existing product id
-     * @return {@link ProductDto}
+     * @param code          product code
+     * @param productUpdate {@link ProductUpdateDto} with product values
+     * @return created {@link ProductDto} with {@link HttpStatus#CREATED}, or updated {@link ProductDto} with
+     * {@link HttpStatus#OK}
+     */
+    @RequestMapping(method = RequestMethod.PUT, value = "/code/{code}")
+    @Operation(operationId = "upsertProductByCode", summary = "Create or update a product by code", description = "Handles requests for creating a product with the code or updating the existing one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updated", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class))
+            }),
+            @ApiResponse(responseCode = "201", description = "Created", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<ProductDto> upsertByCode(@Parameter(description = "Product code", required = true) @Size(max = 255, message = "Product code length cannot exceed 255 characters") @PathVariable("code") String code,
+                                                   @Parameter(description = "Product to be updated", required = true) @Valid @NotNull @RequestBody ProductUpdateDto productUpdate) {
+
+        // Create or update the product after its accepted update.
+        productUpdateBuffer.ifPresent(buffer -> buffer.flush(code));
+        var product = productService.upsertByCode(code, productUpdate);
+        if (product.getUpdated() == null) {
+            logger.info("Created product with id: {}", product.getId());
+            return new ResponseEntity<>(product, HttpStatus.CREATED);
+        }
+        logger.info("Updated product with id: {}", product.getId());
+
+        return new ResponseEntity<>(product, HttpStatus.OK);
+    }
+
+    /**
+     * Handles requests for partially updating an existing product.
+     * <p>
+     * Accepts a JSON merge patch; only provided values are changed. Product is not written when the patch does not
+     * change any value.
+     *
+     * @param id           existing product id
+     * @param productPatch {@link ProductPatchDto} with values to change
+     * @return {@link ResponseEntity} with {@link HttpStatus#NO_CONTENT}
      * @throws NotFoundException when product does not exist
      */
+    @RequestMapping(method = RequestMethod.PATCH, value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(operationId = "patchProduct", summary = "Partially update an existing product", description = "Handles requests for changing only the provided values of an existing product")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<String> patch(@Parameter(description = "Product id", required = true, example = "1") @PathVariable long id,
+                                        @Parameter(description = "Product values to be changed", required = true) @Valid @NotNull @RequestBody ProductPatchDto productPatch)
+            throws NotFoundException {
+
+        // Change the provided values of an existing product after its accepted update.
+        productUpdateBuffer.ifPresent(buffer -> buffer.flush(id));
+        productService.patch(id, productPatch);
+        logger.info("Patched product with id: {}", id);
+
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * Handles requests for reading a product by id.
+     * <p>
+     * Product is returned from the {@link ProductJsonCache} when it was recently read. Responses carry an entity tag
+     * and the last modification time, and {@link HttpStatus#NOT_MODIFIED} is returned when the product did not change
+     * since the client read it. A conditional request of a product that is not cached reads only the product version.
+     * The cache holds only JSON, so a product requested as CBOR is read from the database.
+     * <p>
+     * When fields are requested, only their columns are read from the database and only they are returned.
+     *
+     * @param id         existing product id
+     * @param fields     optional comma separated fields to return; all fields are returned when not provided
+     * @param webRequest {@link WebRequest} with conditional and content negotiation headers
+     * @return {@link ProductDto} serialized as JSON, {@link ProductDto} when CBOR is preferred or
+     * {@link SparseProductDto} when fields are requested, or {@code null} when product was not modified
+     * @throws NotFoundException   when product does not exist
+     * @throws BadRequestException when a field is not known
+     */
     @RequestMapping(method = RequestMethod.GET, value = "/{id}")
     @Operation(operationId = "findProduct", summary = "Find product by id", description = "Handles requests for reading an existing product by id")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "200", description = "Success", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)),
+                    @Content(mediaType = "application/cbor", schema = @Schema(implementation = ProductDto.class))
+            }),
+            @ApiResponse(responseCode = "304", description = "Not modified"),
             @ApiResponse(responseCode = "404", description = "Not found"),
             @ApiResponse(responseCode = "500", description = "Unexpected error")
     })
-    public ResponseEntity<ProductDto> find(@Parameter(description = "Product id", required = true, example = "1") @NotNull @Positive @PathVariable("id") long id)
+    public ResponseEntity<?> find(@Parameter(description = "Product id", required = true, example = "1") @NotNull @Positive @PathVariable("id") long id,
+                                  @Parameter(description = "Optional comma separated fields to return", example = "id,name,price") @RequestParam(name = "fields", required = false) String fields,
+                                  WebRequest webRequest)
+            throws NotFoundException, BadRequestException {
+
+        // Read only the requested fields of a product, which are not cached.
+        var productFields = ProductFields.parse(fields);
+        if (productFields != null) {
+            var product = productService.findRequired(id, productFields);
+            var version = ProductETag.version(product);
+            if (webRequest.checkNotModified(eTag(ProductETag.of(version), productFields, webRequest), lastModified(version))) {
+                return null;
+            }
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(ProductFields.select(product, productFields));
+        }
+
+        // Read a product requested in a binary representation, which is not cached.
+        if (prefersCbor(webRequest)) {
+            var product = productService.findRequired(id);
+            var version = ProductETag.version(product);
+            if (webRequest.checkNotModified(ProductETag.of(ProductETag.of(version), CBOR), lastModified(version))) {
+                return null;
+            }
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(product);
+        }
+
+        // Validate a conditional request of a product that is not cached by its version only.
+        var cachedProduct = productJsonCache.getIfPresent(id);
+        if (cachedProduct == null && isConditional(webRequest)) {
+            var version = productService.findRequiredVersion(id);
+            if (webRequest.checkNotModified(ProductETag.of(version), lastModified(version))) {
+                return null;
+            }
+        }
+
+        // Read an existing product.
+        if (cachedProduct == null) {
+            cachedProduct = productJsonCache.get(id);
+        }
+        var version = cachedProduct.getVersion();
+        if (webRequest.checkNotModified(ProductETag.of(version), lastModified(version))) {
+            return null;
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT).body(cachedProduct.getJson());
+    }
+
+    /**
+     * Handles requests for reading a product by code.
+     * <p>
+     * Responses carry an entity tag and the last modification time, and {@link HttpStatus#NOT_MODIFIED} is returned
+     * when the product did not change since the client read it.
+     *
+     * @param code       existing product code
+     * @param webRequest {@link WebRequest} with conditional request headers
+     * @return {@link ProductDto}, or {@code null} when product was not modified
+     * @throws NotFoundException when product does not exist
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/code/{code}")
+    @Operation(operationId = "findProductByCode", summary = "Find product by code", description = "Handles requests for reading an existing product by code")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)),
+                    @Content(mediaType = "application/cbor", schema = @Schema(implementation = ProductDto.class))
+            }),
+            @ApiResponse(responseCode = "304", description = "Not modified"),
+            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<ProductDto> findByCode(@Parameter(description = "Product code", required = true) @PathVariable("code") String code,
+                                                 WebRequest webRequest)
             throws NotFoundException {
 
         // Read an existing product.
-        var product = productService.findRequired(id);
-        return new ResponseEntity<>(product, HttpStatus.OK);
+        var product = productService.findRequiredByCode(code);
+        var version = ProductETag.version(product);
+        if (webRequest.checkNotModified(eTag(ProductETag.of(version), webRequest), lastModified(version))) {
+            return null;
+        }
+
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(product);
+    }
+
+    /**
+     * Handles requests for reading multiple products by ids and codes.
+     * <p>
+     * All products are read in a single request and transaction. A result is returned for every requested id followed
+     * by every requested code, in the request order, and products that do not exist are marked as not found.
+     *
+     * @param productLookup {@link ProductLookupDto} with ids and codes
+     * @return {@link ObjectsResponseDto} containing a {@link ProductLookupResultDto} for every requested key
+     * @throws BadRequestException when no key or too many keys are requested
+     */
+    @RequestMapping(method = RequestMethod.POST, value = "/lookup")
+    @Operation(operationId = "lookupProducts", summary = "Find products by ids and codes", description = "Handles requests for reading multiple products by ids and codes at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<ObjectsResponseDto<ProductLookupResultDto>> lookup(@Parameter(description = "Ids and codes of products to be read", required = true) @Valid @NotNull @RequestBody ProductLookupDto productLookup)
+            throws BadRequestException {
+
+        // Validate the number of requested keys.
+        var size = (productLookup.getIds() != null ? productLookup.getIds().size() : 0)
+                + (productLookup.getCodes() != null ? productLookup.getCodes().size() : 0);
+        if (size == 0) {
+            throw new BadRequestException("At least one product id or code must be provided.");
+        }
+        if (size > MAX_LOOKUP_SIZE) {
+            throw new BadRequestException("At most " + MAX_LOOKUP_SIZE + " product ids and codes can be looked up at once.");
+        }
+
+        // Read the requested products.
+        var results = productService.lookup(productLookup.getIds(), productLookup.getCodes());
+        logger.info("Looked up products by {} keys", size);
+
+        return ResponseEntity.ok(results);
     }
 
     /**
      * Handles requests for reading all products by parameters.
+     * <p>
+     * With {@link PaginationMode#KEYSET} pagination the page number is ignored, the total number of products is not
+     * returned and the next page is requested with the returned cursor.
+     * <p>
+     * With {@link PaginationMode#OFFSET} pagination the total number of products is counted according to the
+     * {@link CountMode}; the total count header is set only when the total number of products is returned.
+     * Products found by name can be sorted by {@code relevance} to list the best matches first.
+     * <p>
+     * With {@link PaginationMode#DELTA} pagination products created, updated or deleted since the timestamp are
+     * returned in the order of their change, without filters and sorting. Deleted products are flagged as deleted and
+     * the returned cursor is used to read the next page or, once there is no next page, the following changes later.
+     * <p>
+     * Responses carry an entity tag of the returned page. A request with {@code If-None-Match} header reads only ids
+     * and change timestamps of the products and {@link HttpStatus#NOT_MODIFIED} is returned when the page did not
+     * change.
+     * <p>
+     * When fields are requested with offset or keyset pagination, only their columns, the ids and change timestamps
+     * are read from the database and only the requested fields are returned.
      *
-     * @param name       optional part or full name of a product
-     * @param priceStart optional product price start
-     * @param priceEnd   optional product price end
-     * @param active     optional flag for including active/inactive products
-     * @param pageable   {@link Pageable} with pagination information
-     * @return {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s
+     * @param name         optional part or full name of a product
+     * @param priceStart   optional product price start
+     * @param priceEnd     optional product price end
+     * @param active       optional flag for including active/inactive products
+     * @param pagination   {@link PaginationMode}
+     * @param count        {@link CountMode} used with offset pagination
+     * @param cursor       optional cursor of the next page used with keyset or delta pagination
+     * @param updatedSince optional {@link Instant} since which changes are read with delta pagination
+     * @param fields       optional comma separated fields to return; all fields are returned when not provided
+     * @param pageable     {@link Pageable} with pagination information
+     * @param webRequest   {@link WebRequest} with conditional request headers
+     * @return {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s, or {@link SparseProductDto}s
+     * when fields are requested, or {@code null} when products were not modified
+     * @throws BadRequestException when cursor is not valid, sorting is not supported or a field is not known
      */
     @RequestMapping(method = RequestMethod.GET)
     @Operation(operationId = "findAllProducts", summary = "Find all products by parameters", description = "Handles requests for reading all existing products by parameters")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "304", description = "Not modified"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
             @ApiResponse(responseCode = "500", description = "Unexpected error")
     })
-    public ResponseEntity<ObjectsResponseDto<ProductDto>> findAll(@Parameter(description = "Optional part or full product name", example = "book") @RequestParam(name = "name", required = false) String name,
+    public ResponseEntity<ObjectsResponseDto<?>> findAll(@Parameter(description = "Optional part or full product name", example = "book") @RequestParam(name = "name", required = false) String name,
                                                                   @Parameter(description = "Optional product price start value", example = "11.3") @RequestParam(name = "price-start", required = false) BigDecimal priceStart,
                                                                   @Parameter(description = "Optional product price end value", example = "22.5") @RequestParam(name = "price-end", required = false) BigDecimal priceEnd,
                                                                   @Parameter(description = "Optional flag for including active/inactive products", example = "true") @RequestParam(name = "active", required = false) Boolean active,
-                                                                  Pageable pageable) {
+                                                                  @Parameter(description = "Pagination mode", example = "KEYSET") @RequestParam(name = "pagination", defaultValue = "OFFSET") PaginationMode pagination,
+                                                                  @Parameter(description = "Optional cursor of the next page used with keyset or delta pagination") @RequestParam(name = "cursor", required = false) String cursor,
+                                                                  @Parameter(description = "Total number counting mode used with offset pagination", example = "NONE") @RequestParam(name = "count", defaultValue = "EXACT") CountMode count,
+                                                                  @Parameter(description = "Optional timestamp since which changes are read with delta pagination", example = "2025-01-01T00:00:00Z") @RequestParam(name = "updated-since", required = false) Instant updatedSince,
+                                                                  @Parameter(description = "Optional comma separated fields to return", example = "id,name,price") @RequestParam(name = "fields", required = false) String fields,
+                                                                  Pageable pageable,
+                                                                  WebRequest webRequest)
+            throws BadRequestException {
+
+        var productFields = ProductFields.parse(fields);
+
+        // Read products changed since the timestamp or the cursor, including deleted products.
+        if (pagination == PaginationMode.DELTA) {
+            if (name != null || priceStart != null || priceEnd != null || active != null || pageable.getSort().isSorted() || productFields != null) {
+                throw new BadRequestException("Delta pagination does not support filters, sorting and fields");
+            }
+            return ResponseEntity.ok(productDeltaService.findAllChanged(updatedSince, cursor, pageable.getPageSize()));
+        }
+
+        // Validate a conditional request by the versions of the products only.
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            var eTag = pagination == PaginationMode.KEYSET
+                    ? productService.findAllAfterETag(name, priceStart, priceEnd, active, cursor, pageable)
+                    : productService.findAllETag(name, priceStart, priceEnd, active, count, pageable);
+            if (webRequest.checkNotModified(eTag(eTag, productFields, webRequest))) {
+                return null;
+            }
+        }
+
+        // Read multiple products by parameters using keyset pagination.
+        if (pagination == PaginationMode.KEYSET) {
+            var products = productService.findAllAfter(name, priceStart, priceEnd, active, cursor, productFields, pageable);
+            return ResponseEntity.ok().eTag(eTag(ProductETag.of(products), productFields, webRequest)).varyBy(HttpHeaders.ACCEPT).body(select(products, productFields));
+        }
 
         // Read multiple products by parameters.
-        var products = productService.findAll(name, priceStart, priceEnd, active, pageable);
+        var products = productService.findAll(name, priceStart, priceEnd, active, count, productFields, pageable);
         var totalElements = products.getTotalNumber();
 
         // Set the total count header.
         var headers = new HttpHeaders();
-        headers.add("X-Total-Count", String.valueOf(totalElements));
+        if (totalElements != null) {
+            headers.add("X-Total-Count", String.valueOf(totalElements));
+        }
+        headers.setETag(eTag(ProductETag.of(products), productFields, webRequest));
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+
+        return new ResponseEntity<>(select(products, productFields), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Handles requests for exporting all products by parameters.
+     * <p>
+     * Products are streamed ordered by id directly from a database cursor to the response, so the whole catalog can be
+     * exported with a single request without holding it in memory.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param format     {@link DataFormat}
+     * @return {@link StreamingResponseBody} writing the products
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/export")
+    @Operation(operationId = "exportProducts", summary = "Export all products by parameters", description = "Handles requests for streaming all existing products by parameters as newline delimited JSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = {
+                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = ProductDto.class)),
+                    @Content(mediaType = "text/csv", schema = @Schema(type = "string"))
+            }),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<StreamingResponseBody> export(@Parameter(description = "Optional part or full product name", example = "book") @RequestParam(name = "name", required = false) String name,
+                                                        @Parameter(description = "Optional product price start value", example = "11.3") @RequestParam(name = "price-start", required = false) BigDecimal priceStart,
+                                                        @Parameter(description = "Optional product price end value", example = "22.5") @RequestParam(name = "price-end", required = false) BigDecimal priceEnd,
+                                                        @Parameter(description = "Optional flag for including active/inactive products", example = "true") @RequestParam(name = "active", required = false) Boolean active,
+                                                        @Parameter(description = "Export format", example = "CSV") @RequestParam(name = "format", defaultValue = "NDJSON") DataFormat format) {
+
+        var mediaType = format == DataFormat.CSV ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON;
+        var fileName = "products." + format.name().toLowerCase();
+
+        // Stream products on an asynchronous request thread.
+        StreamingResponseBody body = outputStream -> {
+            productExporter.export(name, priceStart, priceEnd, active, format, outputStream);
+            logger.info("Exported products as {}", format);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
 
-        return new ResponseEntity<>(products, headers, HttpStatus.OK);
+    /**
+     * Handles requests for receiving product changes.
+     * <p>
+     * Creates, updates and deletes are sent as server-sent events as soon as they are committed. A client that
+     * reconnects with the id of the last received event receives the changes it missed, or a
+     * {@value ProductChangeFeed#RESET_EVENT} event when they cannot be sent anymore.
+     *
+     * @param lastEventId optional id of the last received event
+     * @return {@link SseEmitter} sending the changes
+     * @throws IOException when the response cannot be started
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(operationId = "streamProductChanges", summary = "Stream product changes", description = "Handles requests for receiving product creates, updates and deletes as server-sent events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = {
+                    @Content(mediaType = "text/event-stream", schema = @Schema(implementation = ProductChangeDto.class))
+            }),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<SseEmitter> changes(@Parameter(description = "Optional id of the last received event", example = "m2x1k9c0-42") @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId)
+            throws IOException {
+
+        // Subscribe to changes following the last received event.
+        var emitter = productChangeFeed.subscribe(lastEventId);
+        logger.info("Subscribed to product changes after event: {}", lastEventId);
+
+        return ResponseEntity.ok(emitter);
     }
 
     /**
@@ -165,10 +628,94 @@ public class ProductController {
                                          @PathVariable long id)
             throws NotFoundException {
 
-        // Delete an existing product.
+        // Delete an existing product after its accepted update.
+        productUpdateBuffer.ifPresent(buffer -> buffer.flush(id));
         productService.delete(id);
-        logger.info("Deleted product with id: " + id);
+        logger.info("Deleted product with id: {}", id);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    /**
+     * Checks if the client prefers the CBOR representation over JSON according to the {@code Accept} header.
+     * <p>
+     * The first of the two media types with the highest quality is preferred, like in content negotiation.
+     *
+     * @param webRequest {@link WebRequest}
+     * @return {@code true} when CBOR is preferred
+     */
+    private boolean prefersCbor(WebRequest webRequest) {
+        var accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return false;
+        }
+
+        try {
+            MediaType preferred = null;
+            for (var mediaType : MediaType.parseMediaTypes(accept)) {
+                var producible = mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) || mediaType.includes(MediaType.APPLICATION_JSON);
+                if (producible && (preferred == null || mediaType.getQualityValue() > preferred.getQualityValue())) {
+                    preferred = mediaType;
+                }
+            }
+            return preferred != null && preferred.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the entity tag of the representation preferred by the client.
+     *
+     * @param eTag       quoted entity tag of the JSON representation
+     * @param webRequest {@link WebRequest}
+     * @return quoted entity tag
+     */
+    private String eTag(String eTag, WebRequest webRequest) {
+        return prefersCbor(webRequest) ? ProductETag.of(eTag, CBOR) : eTag;
+    }
+
+    /**
+     * Returns the entity tag of the representation with the requested fields preferred by the client.
+     *
+     * @param eTag       quoted entity tag of the JSON representation with all fields
+     * @param fields     optional requested fields
+     * @param webRequest {@link WebRequest}
+     * @return quoted entity tag
+     */
+    private String eTag(String eTag, Set<String> fields, WebRequest webRequest) {
+        return eTag(fields != null ? ProductETag.of(eTag, ProductFields.representation(fields)) : eTag, webRequest);
+    }
+
+    /**
+     * Selects the requested fields of the products.
+     *
+     * @param products {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s
+     * @param fields   optional requested fields
+     * @return {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s, or {@link SparseProductDto}s
+     * when fields are requested
+     */
+    private ObjectsResponseDto<?> select(ObjectsResponseDto<ProductDto> products, Set<String> fields) {
+        return fields != null ? ProductFields.select(products, fields) : products;
+    }
+
+    /**
+     * Checks if the request contains any conditional request header.
+     *
+     * @param webRequest {@link WebRequest}
+     * @return {@code true} when request is conditional
+     */
+    private boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Returns the last modification time of a product in milliseconds.
+     *
+     * @param version {@link ProductVersion}
+     * @return last modification time, or {@code -1} when unknown
+     */
+    private long lastModified(ProductVersion version) {
+        return version.getVersion() != null ? version.getVersion().getTime() : -1;
+    }
 }
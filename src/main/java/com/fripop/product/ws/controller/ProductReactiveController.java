@@ -0,0 +1,172 @@
+package com.fripop.product.ws.controller;
+
+import com.fripop.product.ws.dto.ProductCreateDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.service.ProductReactiveService;
+import com.fripop.product.ws.util.Logger;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link ProductReactiveController} handles product related requests without blocking request threads.
+ * <p>
+ * Products are read and written through R2DBC. The request thread is released while the database works and the
+ * response is written as products arrive, so slow clients and a slow database do not hold threads. Requests are
+ * validated by the same rules as in {@link ProductController}.
+ *
+ * @since 1.0.0
+ */
+@Tag(name = "Product v2")
+@Controller
+@RequestMapping("/v2/products")
+@AllArgsConstructor
+@Validated
+public class ProductReactiveController {
+
+    private final Logger logger = Logger.getLogger(ProductReactiveController.class);
+    private final ProductReactiveService productReactiveService;
+
+    /**
+     * Handles requests for creating a new product.
+     *
+     * @param productCreate {@link ProductCreateDto} with creation information
+     * @return {@link Mono} with created {@link ProductDto}
+     */
+    @RequestMapping(method = RequestMethod.POST)
+    @Operation(operationId = "createProductV2", summary = "Create a new product", description = "Handles requests for creating a new product without blocking")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Success", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class))
+            }),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public Mono<ResponseEntity<ProductDto>> create(@Parameter(description = "Product to be created", required = true) @Valid @NotNull @RequestBody ProductCreateDto productCreate) {
+
+        // Create a new product.
+        return productReactiveService.create(productCreate)
+                .doOnNext(createdProduct -> logger.info("Created product with id: {}", createdProduct.getId()))
+                .map(createdProduct -> new ResponseEntity<>(createdProduct, HttpStatus.CREATED));
+    }
+
+    /**
+     * Handles requests for updating an existing product.
+     *
+     * @param id            existing product id
+     * @param productUpdate {@link ProductUpdateDto} with update information
+     * @return {@link Mono} with {@link ResponseEntity} with {@link HttpStatus#NO_CONTENT}
+     */
+    @RequestMapping(method = RequestMethod.PUT, value = "/{id}")
+    @Operation(operationId = "updateProductV2", summary = "Update an existing product", description = "Handles requests for updating an existing product without blocking")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Success"),
+            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public Mono<ResponseEntity<String>> update(@Parameter(description = "Product id", required = true, example = "1") @PathVariable long id,
+                                               @Parameter(description = "Product to be updated", required = true) @Valid @NotNull @RequestBody ProductUpdateDto productUpdate) {
+
+        // Update an existing product.
+        return productReactiveService.update(id, productUpdate)
+                .then(Mono.fromSupplier(() -> {
+                    logger.info("Updated product with id: {}", id);
+                    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+                }));
+    }
+
+    /**
+     * Handles requests for reading a product by id.
+     *
+     * @param id existing product id
+     * @return {@link Mono} with {@link ProductDto}
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/{id}")
+    @Operation(operationId = "findProductV2", summary = "Find product by id", description = "Handles requests for reading an existing product by id without blocking")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class))
+            }),
+            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public Mono<ResponseEntity<ProductDto>> find(@Parameter(description = "Product id", required = true, example = "1") @NotNull @Positive @PathVariable("id") long id) {
+
+        // Read a single product by id.
+        return productReactiveService.findRequired(id).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Handles requests for reading all products by parameters.
+     * <p>
+     * Products are streamed as newline delimited JSON ordered by id. The next products are read from the database
+     * only after the previous ones were written to the client.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @return {@link ResponseEntity} with {@link Flux} of {@link ProductDto}s
+     */
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(operationId = "findAllProductsV2", summary = "Stream all products by parameters", description = "Handles requests for streaming all existing products by parameters without blocking")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = {
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = ProductDto.class)))
+            }),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public ResponseEntity<Flux<ProductDto>> findAll(@Parameter(description = "Optional part or full product name", example = "book") @RequestParam(name = "name", required = false) String name,
+                                                    @Parameter(description = "Optional product price start value", example = "11.3") @RequestParam(name = "price-start", required = false) BigDecimal priceStart,
+                                                    @Parameter(description = "Optional product price end value", example = "22.5") @RequestParam(name = "price-end", required = false) BigDecimal priceEnd,
+                                                    @Parameter(description = "Optional flag for including active/inactive products", example = "true") @RequestParam(name = "active", required = false) Boolean active) {
+
+        // Stream products by parameters.
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productReactiveService.findAll(name, priceStart, priceEnd, active));
+    }
+
+    /**
+     * Handles requests for deleting a product by id.
+     *
+     * @param id existing product id
+     * @return {@link Mono} with {@link ResponseEntity} with {@link HttpStatus#NO_CONTENT}
+     */
+    @RequestMapping(method = RequestMethod.DELETE, value = "/{id}")
+    @Operation(operationId = "deleteProductV2", summary = "Delete product by id", description = "Handles requests for deleting an existing product by id without blocking")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Success"),
+            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "500", description = "Unexpected error")
+    })
+    public Mono<ResponseEntity<String>> delete(@Parameter(description = "Product id", required = true, example = "1") @NotNull @Positive @PathVariable("id") long id) {
+
+        // Delete product by id.
+        return productReactiveService.delete(id)
+                .then(Mono.fromSupplier(() -> {
+                    logger.info("Deleted product with id: {}", id);
+                    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+                }));
+    }
+}
@@ -0,0 +1,75 @@
+package com.fripop.product.ws.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Data transfer object with a captured incoming request, written as a single line of a JSON lines file.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CapturedRequestDto implements Serializable {
+
+    /**
+     * Time when the request was received, in milliseconds since the epoch.
+     */
+    @Schema(description = "Time when the request was received in milliseconds since the epoch", example = "1735689600000")
+    private Long timestamp;
+
+    /**
+     * HTTP method.
+     */
+    @Schema(description = "HTTP method", example = "GET")
+    private String method;
+
+    /**
+     * Request path without the context path.
+     */
+    @Schema(description = "Request path without the context path", example = "/products/1")
+    private String path;
+
+    /**
+     * Raw query string; empty when request has no query.
+     */
+    @Schema(description = "Raw query string", example = "name=book&size=20")
+    private String query;
+
+    /**
+     * Content type of the request body; empty when request has no body.
+     */
+    @Schema(description = "Content type of the request body", example = "application/json")
+    private String contentType;
+
+    /**
+     * UTF-8 decoded request body; empty when request has no body or it was larger than the capture limit.
+     */
+    @Schema(description = "Request body")
+    private String body;
+
+    /**
+     * Flag indicating that the body was larger than the capture limit and was left out.
+     */
+    @Schema(description = "Flag indicating that the body was left out because of its size", example = "false")
+    private Boolean bodyTruncated;
+
+    /**
+     * Response status.
+     */
+    @Schema(description = "Response status", example = "200")
+    private Integer status;
+
+    /**
+     * Time spent handling the request in microseconds.
+     */
+    @Schema(description = "Time spent handling the request in microseconds", example = "1250")
+    private Long durationMicros;
+}
@@ -0,0 +1,24 @@
+package com.fripop.product.ws.dto;
+
+/**
+ * Modes of counting the total number of objects when reading multiple objects.
+ *
+ * @since 1.0.0
+ */
+public enum CountMode {
+
+    /**
+     * Total number is counted with every request.
+     */
+    EXACT,
+
+    /**
+     * Total number is estimated from database statistics or a recently counted value.
+     */
+    ESTIMATED,
+
+    /**
+     * Total number is not counted; only the flag indicating whether there is a next page is returned.
+     */
+    NONE
+}
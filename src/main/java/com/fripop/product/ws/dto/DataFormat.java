@@ -0,0 +1,19 @@
+package com.fripop.product.ws.dto;
+
+/**
+ * Formats supported when exporting and importing objects.
+ *
+ * @since 1.0.0
+ */
+public enum DataFormat {
+
+    /**
+     * Newline delimited JSON with one object per line.
+     */
+    NDJSON,
+
+    /**
+     * Comma separated values with a header line.
+     */
+    CSV
+}
@@ -1,5 +1,6 @@
 package com.fripop.product.ws.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -28,4 +29,21 @@ public class ObjectsResponseDto<T extends Serializable> implements Serializable
      * Collection of objects on the current page.
      */
     private List<T> objects;
+
+    /**
+     * Opaque cursor of the next page when keyset pagination is used.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
+
+    /**
+     * Flag indicating if there are more objects after the current page.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasNext;
+
+    public ObjectsResponseDto(Long totalNumber, List<T> objects) {
+        this.totalNumber = totalNumber;
+        this.objects = objects;
+    }
 }
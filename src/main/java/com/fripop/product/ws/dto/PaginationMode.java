@@ -0,0 +1,25 @@
+package com.fripop.product.ws.dto;
+
+/**
+ * Pagination modes supported when reading multiple objects.
+ *
+ * @since 1.0.0
+ */
+public enum PaginationMode {
+
+    /**
+     * Pages are addressed by page number and size.
+     */
+    OFFSET,
+
+    /**
+     * Pages are addressed by an opaque cursor of the last object on the previous page.
+     */
+    KEYSET,
+
+    /**
+     * Objects changed since a point in time, including deleted ones, are addressed by an opaque cursor of the last
+     * change on the previous page.
+     */
+    DELTA
+}
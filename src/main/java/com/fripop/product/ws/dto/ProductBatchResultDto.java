@@ -0,0 +1,40 @@
+package com.fripop.product.ws.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Data transfer object with the result of a single item of a batch product creation.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchResultDto implements Serializable {
+
+    /**
+     * Position of the item in the request.
+     */
+    @Schema(description = "Position of the item in the request", example = "0")
+    private Integer index;
+
+    /**
+     * Identifier of the created product; empty when the item was rejected.
+     */
+    @Schema(description = "Unique numeric identifier of the created product; empty when the item was rejected")
+    private Long id;
+
+    /**
+     * Validation errors of a rejected item.
+     */
+    @Schema(description = "Validation errors of a rejected item")
+    private List<String> errors;
+}
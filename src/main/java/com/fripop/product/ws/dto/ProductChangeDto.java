@@ -0,0 +1,34 @@
+package com.fripop.product.ws.dto;
+
+import com.fripop.product.ws.event.ProductEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Data transfer object with a single product change sent to change feed subscribers.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangeDto implements Serializable {
+
+    /**
+     * Type of the product change.
+     */
+    @Schema(description = "Type of the product change", example = "UPDATED")
+    private ProductEvent.Type type;
+
+    /**
+     * Identifier of the changed product, or the highest identifier of the imported products.
+     */
+    @Schema(description = "Unique numeric identifier of the changed product, or the highest identifier of the imported products", example = "1")
+    private Long id;
+}
@@ -1,5 +1,6 @@
 package com.fripop.product.ws.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -62,4 +63,16 @@ public class ProductDto implements Serializable {
      */
     @Schema(description = "Price", example = "22.5")
     private BigDecimal price;
+
+    /**
+     * Flag set only on a deleted product returned by a delta synchronization; only its id, code and the update
+     * {@link Timestamp} of the delete are provided.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Flag set on a deleted product returned by delta pagination")
+    private Boolean deleted;
+
+    public ProductDto(Long id, String code, Timestamp created, Timestamp updated, Boolean active, String name, BigDecimal price) {
+        this(id, code, created, updated, active, name, price, null);
+    }
 }
@@ -0,0 +1,40 @@
+package com.fripop.product.ws.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Data transfer object with the result of a product import.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResultDto implements Serializable {
+
+    /**
+     * Number of imported products.
+     */
+    @Schema(description = "Number of imported products", example = "1000")
+    private Long imported;
+
+    /**
+     * Number of rejected lines.
+     */
+    @Schema(description = "Number of rejected lines", example = "2")
+    private Long rejected;
+
+    /**
+     * Rejected lines with their errors, limited to the first rejected lines.
+     */
+    @Schema(description = "Rejected lines with their errors, where index is the line number; limited to the first rejected lines")
+    private List<ProductBatchResultDto> rejectedLines;
+}
@@ -0,0 +1,36 @@
+package com.fripop.product.ws.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Data transfer object used for looking up multiple products by ids and codes.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductLookupDto implements Serializable {
+
+    /**
+     * Ids of the products to look up.
+     */
+    @ArraySchema(arraySchema = @Schema(description = "Unique numeric identifiers of the products to look up", example = "[1, 2]"))
+    private List<@NotNull(message = "Product id must be provided.") Long> ids;
+
+    /**
+     * Codes of the products to look up.
+     */
+    @ArraySchema(arraySchema = @Schema(description = "Unique alphanumeric identifiers of the products to look up"))
+    private List<@NotNull(message = "Product code must be provided.") String> codes;
+}
@@ -0,0 +1,45 @@
+package com.fripop.product.ws.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Data transfer object with the result of a single key of a product lookup.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductLookupResultDto implements Serializable {
+
+    /**
+     * Requested product id; empty when the product was requested by code.
+     */
+    @Schema(description = "Requested unique numeric identifier; empty when the product was requested by code", example = "1")
+    private Long id;
+
+    /**
+     * Requested product code; empty when the product was requested by id.
+     */
+    @Schema(description = "Requested unique alphanumeric identifier; empty when the product was requested by id")
+    private String code;
+
+    /**
+     * {@link Boolean} flag indicating if product was found or not.
+     */
+    @Schema(description = "Flag indicating if product was found")
+    private Boolean found;
+
+    /**
+     * Found product; empty when the product was not found.
+     */
+    @Schema(description = "Found product; empty when the product was not found")
+    private ProductDto product;
+}
@@ -0,0 +1,48 @@
+package com.fripop.product.ws.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.validator.constraints.Length;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Data transfer object used for partial product update.
+ * <p>
+ * Values that are not provided, or are {@code null}, are not changed, since none of them can be removed.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPatchDto implements Serializable {
+
+    /**
+     * Optional {@link Boolean} flag indicating if product is active or not.
+     */
+    @Schema(description = "Flag indicating if product is active")
+    private Boolean active;
+
+    /**
+     * Optional product name.
+     */
+    @Pattern(regexp = "(?s).*\\S.*", message = "Product name cannot be blank.")
+    @Length(max = 255, message = "Product name length cannot exceed 255 characters")
+    @Schema(description = "Name")
+    private String name;
+
+    /**
+     * Optional product price.
+     */
+    @Positive(message = "Product price must be positive.")
+    @Schema(description = "Price", example = "22.5")
+    private BigDecimal price;
+}
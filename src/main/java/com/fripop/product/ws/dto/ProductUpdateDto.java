@@ -27,6 +27,7 @@ public class ProductUpdateDto implements Serializable {
     /**
      * {@link Boolean} flag indicating if product is active or not.
      */
+    @NotNull(message = "Product active flag must be provided.")
     @Schema(description = "Flag indicating if product is active", defaultValue = "true")
     private Boolean active = true;
 
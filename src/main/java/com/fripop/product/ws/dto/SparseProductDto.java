@@ -0,0 +1,35 @@
+package com.fripop.product.ws.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+
+/**
+ * Product data transfer object with only the requested fields.
+ *
+ * @since 1.0.0
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Product with only the requested fields")
+public class SparseProductDto implements Serializable {
+
+    /**
+     * Requested field values by field names.
+     */
+    private LinkedHashMap<String, Object> fields;
+
+    /**
+     * Returns the requested field values, written as the properties of the product.
+     *
+     * @return requested field values by field names
+     */
+    @JsonAnyGetter
+    public LinkedHashMap<String, Object> getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,41 @@
+package com.fripop.product.ws.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when a product is changed.
+ * <p>
+ * Listeners that depend on the committed state should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class ProductEvent {
+
+    /**
+     * Type of the product change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+
+        /**
+         * A chunk of imported products was created; the event carries the highest id of the chunk only.
+         */
+        IMPORTED
+    }
+
+    /**
+     * Type of the product change.
+     */
+    private final Type type;
+
+    /**
+     * Changed product id, or the highest id of the imported products.
+     */
+    private final long id;
+}
@@ -0,0 +1,21 @@
+package com.fripop.product.ws.exception;
+
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.io.Serializable;
+
+/**
+ * Service unavailable exception with {@link HttpStatus#SERVICE_UNAVAILABLE}.
+ *
+ * @since 1.0.0
+ */
+@NoArgsConstructor
+public class ServiceUnavailableException extends Exception implements Serializable {
+
+    public static final HttpStatus HTTP_STATUS = HttpStatus.SERVICE_UNAVAILABLE;
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
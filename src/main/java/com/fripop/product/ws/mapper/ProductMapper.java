@@ -4,6 +4,7 @@ import com.fripop.product.ws.dto.ProductCreateDto;
 import com.fripop.product.ws.dto.ProductDto;
 import com.fripop.product.ws.model.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
 /**
@@ -21,6 +22,9 @@ public interface ProductMapper {
      * @return constructed {@link Product}
      */
     @Named("ProductCreateToProduct")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "created", ignore = true)
+    @Mapping(target = "updated", ignore = true)
     Product productCreateToProduct(ProductCreateDto productCreate);
 
     /**
@@ -30,5 +34,6 @@ public interface ProductMapper {
      * @return constructed {@link ProductDto}
      */
     @Named("ProductToProductDto")
+    @Mapping(target = "deleted", ignore = true)
     ProductDto productToProductDto(Product product);
 }
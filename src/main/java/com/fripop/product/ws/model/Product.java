@@ -1,5 +1,6 @@
 package com.fripop.product.ws.model;
 
+import com.fripop.product.ws.util.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -7,7 +8,6 @@ import org.apache.commons.lang.StringUtils;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
-import java.util.UUID;
 
 /**
  * Product entity model.
@@ -17,16 +17,34 @@ import java.util.UUID;
  * @since 1.0.0
  */
 @Entity
-@Table(name = "product", uniqueConstraints = {@UniqueConstraint(columnNames = {"code"})})
+@Table(name = "product", uniqueConstraints = {@UniqueConstraint(columnNames = {"code"})}, indexes = {
+        @Index(name = "product_name_id_idx", columnList = "name, id"),
+        @Index(name = "product_price_id_idx", columnList = "price, id"),
+        @Index(name = "product_created_id_idx", columnList = "created, id")
+})
 @Getter
 @Setter
 public class Product {
 
+    /**
+     * Name of the sequence used for generating product ids.
+     */
+    public static final String ID_SEQUENCE = "product_seq";
+
+    /**
+     * Number of ids reserved with a single sequence call.
+     * <p>
+     * Each sequence value is the lowest id of a reserved block, so ids can be assigned without a database round trip
+     * per insert and inserts can be sent to the database in JDBC batches.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Auto generating primary numeric identifier.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
@@ -75,9 +93,9 @@ public class Product {
             this.created = new Timestamp(System.currentTimeMillis());
         }
 
-        // Auto generate code if it is empty.
+        // Auto generate a time-ordered code if it is empty, so new codes are appended to the code index.
         if (StringUtils.isEmpty(this.code)) {
-            this.code = UUID.randomUUID().toString();
+            this.code = TimeOrderedUuid.generate().toString();
         }
     }
 
@@ -0,0 +1,43 @@
+package com.fripop.product.ws.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+/**
+ * Product tombstone entity model.
+ * <p>
+ * Represents 'product_tombstone' table in database. A tombstone is written in place of every deleted {@link Product},
+ * so clients synchronizing changes learn about deletes.
+ *
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "product_tombstone", indexes = {
+        @Index(name = "product_tombstone_deleted_id_idx", columnList = "deleted, id")
+})
+@Getter
+@Setter
+public class ProductTombstone {
+
+    /**
+     * Numeric identifier of the deleted product.
+     */
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Alphanumeric identifier of the deleted product.
+     */
+    @Column(name = "code", nullable = false)
+    private String code;
+
+    /**
+     * {@link Timestamp} of deletion.
+     */
+    @Column(name = "deleted", nullable = false)
+    private Timestamp deleted;
+}
@@ -0,0 +1,28 @@
+package com.fripop.product.ws.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.sql.Timestamp;
+
+/**
+ * Projection of a {@link Product} id and the {@link Timestamp} of its last change.
+ * <p>
+ * Used for validating cached product representations without loading the whole product.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class ProductVersion {
+
+    /**
+     * Product id.
+     */
+    private final Long id;
+
+    /**
+     * {@link Timestamp} of last update, or of creation if product was never updated.
+     */
+    private final Timestamp version;
+}
@@ -0,0 +1,48 @@
+package com.fripop.product.ws.repository;
+
+import com.fripop.product.ws.model.Product;
+import org.springframework.stereotype.Component;
+
+/**
+ * Block of product ids reserved in the id sequence for inserts that bypass the persistence context.
+ * <p>
+ * Every sequence value reserves a block of {@link Product#ID_ALLOCATION_SIZE} ids, the same way as the pooled-lo
+ * optimizer used for persisted products, so ids are taken without a database round trip per insert and never collide
+ * with the ids of persisted products. The block is shared by the blocking and the reactive repositories.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductIdBlock {
+
+    /**
+     * Statement reserving a new block, returning its first id.
+     */
+    public static final String RESERVE_SQL = "SELECT nextval('" + Product.ID_SEQUENCE + "')";
+
+    private long nextId;
+    private long blockEnd;
+
+    /**
+     * Takes the next id from the reserved block.
+     *
+     * @return product id, or {@code null} when the block is used up and a new one must be reserved
+     */
+    public synchronized Long next() {
+        return nextId < blockEnd ? nextId++ : null;
+    }
+
+    /**
+     * Replaces the block with a newly reserved one and takes its first id.
+     * <p>
+     * Concurrently reserved blocks replace each other, which only leaves the rest of the replaced block unused.
+     *
+     * @param blockStart sequence value returned by {@link #RESERVE_SQL}
+     * @return product id
+     */
+    public synchronized long reserve(long blockStart) {
+        nextId = blockStart + 1;
+        blockEnd = blockStart + Product.ID_ALLOCATION_SIZE;
+        return blockStart;
+    }
+}
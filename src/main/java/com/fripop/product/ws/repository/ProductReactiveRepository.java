@@ -0,0 +1,194 @@
+package com.fripop.product.ws.repository;
+
+import com.fripop.product.ws.model.Product;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+
+/**
+ * Non-blocking repository for {@link Product} entity backed by R2DBC.
+ * <p>
+ * Uses the same table, id sequence and filters as {@link ProductRepository}, but returns unmanaged {@link Product}s
+ * through {@link Flux} and {@link Mono} without blocking the calling thread. Ids are assigned from the
+ * {@link ProductIdBlock}, like the JPA inserts do.
+ *
+ * @since 1.0.0
+ */
+@Repository
+public class ProductReactiveRepository {
+
+    private static final String COLUMNS = "id, code, created, updated, active, name, price";
+
+    private final DatabaseClient databaseClient;
+    private final ProductIdBlock productIdBlock;
+    private final int fetchSize;
+
+    public ProductReactiveRepository(DatabaseClient databaseClient, ProductIdBlock productIdBlock,
+                                     @Value("${product.reactive.fetch-size:100}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.productIdBlock = productIdBlock;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Finds all {@link Product}s by the provided parameters ordered by id.
+     * <p>
+     * Rows are fetched from the database in chunks of the fetch size as the subscriber requests them.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @return {@link Flux} of {@link Product}s
+     */
+    public Flux<Product> findAll(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active) {
+        var sql = new StringBuilder("SELECT " + COLUMNS + " FROM product WHERE true");
+        var bindings = new LinkedHashMap<String, Object>();
+
+        // Case-insensitive name filter that is served by the trigram index on lower(name).
+        if (name != null) {
+            sql.append(" AND lower(name) LIKE :name ESCAPE '").append(ProductRepository.LIKE_ESCAPE).append("'");
+            bindings.put("name", "%" + ProductRepository.escapeLike(name.toLowerCase()) + "%");
+        }
+
+        // Price range and active filters.
+        if (priceStart != null) {
+            sql.append(" AND price >= :priceStart");
+            bindings.put("priceStart", priceStart);
+        }
+        if (priceEnd != null) {
+            sql.append(" AND price <= :priceEnd");
+            bindings.put("priceEnd", priceEnd);
+        }
+        if (active != null) {
+            sql.append(" AND active = :active");
+            bindings.put("active", active);
+        }
+        sql.append(" ORDER BY id");
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(bindings)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ProductReactiveRepository::toProduct)
+                .all();
+    }
+
+    /**
+     * Finds {@link Product} by id.
+     *
+     * @param id product id
+     * @return {@link Mono} with {@link Product}, empty when product does not exist
+     */
+    public Mono<Product> findById(long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM product WHERE id = :id")
+                .bind("id", id)
+                .map(ProductReactiveRepository::toProduct)
+                .one();
+    }
+
+    /**
+     * Inserts a new {@link Product} and assigns its id.
+     * <p>
+     * Product must have all other values set, since entity callbacks are not executed.
+     *
+     * @param product new {@link Product}
+     * @return {@link Mono} with inserted {@link Product}
+     */
+    public Mono<Product> insert(Product product) {
+        return nextId().flatMap(id -> databaseClient.sql("""
+                        INSERT INTO product (id, code, created, active, name, price)
+                        VALUES (:id, :code, :created, :active, :name, :price)
+                        """)
+                .bind("id", id)
+                .bind("code", product.getCode())
+                .bind("created", product.getCreated().toLocalDateTime())
+                .bind("active", product.getActive())
+                .bind("name", product.getName())
+                .bind("price", product.getPrice())
+                .then()
+                .then(Mono.fromSupplier(() -> {
+                    product.setId(id);
+                    return product;
+                })));
+    }
+
+    /**
+     * Updates the values of a {@link Product} by id.
+     *
+     * @param id      product id
+     * @param active  flag indicating if product is active or not
+     * @param name    product name
+     * @param price   product price
+     * @param updated {@link Timestamp} of the update
+     * @return {@link Mono} with number of updated products; {@code 0} when product does not exist
+     */
+    public Mono<Long> updateById(long id, Boolean active, String name, BigDecimal price, Timestamp updated) {
+        return databaseClient.sql("UPDATE product SET active = :active, name = :name, price = :price, updated = :updated WHERE id = :id")
+                .bind("id", id)
+                .bind("active", active)
+                .bind("name", name)
+                .bind("price", price)
+                .bind("updated", updated.toLocalDateTime())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Deletes a {@link Product} by id and writes its tombstone with a single statement.
+     *
+     * @param id      product id
+     * @param deleted {@link Timestamp} of the delete
+     * @return {@link Mono} with number of deleted products; {@code 0} when product does not exist
+     */
+    public Mono<Long> deleteById(long id, Timestamp deleted) {
+        return databaseClient.sql("""
+                        WITH deleted_product AS (DELETE FROM product WHERE id = :id RETURNING id, code)
+                        INSERT INTO product_tombstone (id, code, deleted) SELECT id, code, :deleted FROM deleted_product
+                        """)
+                .bind("id", id)
+                .bind("deleted", deleted.toLocalDateTime())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Returns the next id from the {@link ProductIdBlock}, reserving a new block when it is used up.
+     *
+     * @return {@link Mono} with product id
+     */
+    private Mono<Long> nextId() {
+        var id = productIdBlock.next();
+        if (id != null) {
+            return Mono.just(id);
+        }
+
+        return databaseClient.sql(ProductIdBlock.RESERVE_SQL)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(productIdBlock::reserve);
+    }
+
+    private static Product toProduct(Readable row) {
+        var product = new Product();
+        product.setId(row.get("id", Long.class));
+        product.setCode(row.get("code", String.class));
+        product.setCreated(toTimestamp(row.get("created", LocalDateTime.class)));
+        product.setUpdated(toTimestamp(row.get("updated", LocalDateTime.class)));
+        product.setActive(row.get("active", Boolean.class));
+        product.setName(row.get("name", String.class));
+        product.setPrice(row.get("price", BigDecimal.class));
+        return product;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime localDateTime) {
+        return localDateTime != null ? Timestamp.valueOf(localDateTime) : null;
+    }
+}
@@ -1,16 +1,33 @@
 package com.fripop.product.ws.repository;
 
+import com.fripop.product.ws.dto.ProductDto;
 import com.fripop.product.ws.exception.NotFoundException;
 import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.model.ProductVersion;
+import com.fripop.product.ws.util.ProductCursor;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
-import org.springframework.data.domain.Page;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * JPA repository for {@link Product} entity.
@@ -18,26 +35,271 @@ import java.util.ArrayList;
  * @since 1.0.0
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
 
     /**
-     * Finds all {@link Product}s by parameters.
+     * Pseudo sort property for ordering {@link Product}s by name search relevance.
+     */
+    String RELEVANCE = "relevance";
+
+    /**
+     * Escape character used in like patterns.
+     */
+    char LIKE_ESCAPE = '\\';
+
+    /**
+     * Maximum number of keys bound to a single in predicate; a power of two, so full chunks are not padded.
+     */
+    int IN_CHUNK_SIZE = 1024;
+
+    /**
+     * Finds a {@link Slice} of {@link Product}s by parameters as {@link ProductDto}s without counting all matching
+     * products.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param pageable   {@link Pageable} with pagination information; may be sorted by {@link #RELEVANCE}
+     * @param properties optional properties to select; all properties are selected when not provided
+     * @return {@link Slice} with {@link ProductDto}s
+     * @see ProductRepositoryCustom#findDtoSlice(Specification, Pageable, Set)
+     */
+    default Slice<ProductDto> findDtoSlice(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, Pageable pageable,
+                                           Set<String> properties) {
+        return this.findDtoSlice(filter(name, priceStart, priceEnd, active).and(relevance(name, pageable.getSort())), withoutRelevance(pageable), properties);
+    }
+
+    /**
+     * Finds a {@link Slice} of {@link ProductVersion}s of {@link Product}s by parameters.
+     * <p>
+     * Matches the products returned by {@link #findDtoSlice(String, BigDecimal, BigDecimal, Boolean, Pageable, Set)}.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param pageable   {@link Pageable} with pagination information; may be sorted by {@link #RELEVANCE}
+     * @return {@link Slice} with {@link ProductVersion}s
+     */
+    default Slice<ProductVersion> findVersionSlice(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, Pageable pageable) {
+        return this.findVersionSlice(filter(name, priceStart, priceEnd, active).and(relevance(name, pageable.getSort())), withoutRelevance(pageable));
+    }
+
+    /**
+     * Finds a {@link Slice} of {@link ProductVersion}s of {@link Product}s by parameters that are positioned after the
+     * cursor.
+     * <p>
+     * Matches the products returned by
+     * {@link #findDtosAfter(String, BigDecimal, BigDecimal, Boolean, ProductCursor, Sort, int, Set)}.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param cursor     optional {@link ProductCursor} of the last read product
+     * @param sort       {@link Sort} by the cursor property and id
+     * @param size       slice size
+     * @return {@link Slice} with {@link ProductVersion}s
+     */
+    default Slice<ProductVersion> findVersionsAfter(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active,
+                                                    ProductCursor cursor, Sort sort, int size) {
+        var specification = filter(name, priceStart, priceEnd, active);
+        if (cursor != null) {
+            specification = specification.and(after(cursor));
+        }
+
+        return this.findVersionSlice(specification, PageRequest.of(0, size, sort));
+    }
+
+    /**
+     * Finds a {@link Product} by id as {@link ProductDto}.
+     *
+     * @param id product id
+     * @return optional {@link ProductDto}
+     */
+    @Query("SELECT new com.fripop.product.ws.dto.ProductDto(p.id, p.code, p.created, p.updated, p.active, p.name, p.price) FROM Product p WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(long id);
+
+    /**
+     * Finds a {@link Product} by id as {@link ProductDto} with only the selected properties.
+     *
+     * @param id         product id
+     * @param properties properties to select
+     * @return optional {@link ProductDto}
+     * @see ProductRepositoryCustom#findDtoSlice(Specification, Pageable, Set)
+     */
+    default Optional<ProductDto> findDtoById(long id, Set<String> properties) {
+        Specification<Product> specification = (root, query, builder) -> builder.equal(root.get("id"), id);
+        return this.findDtoSlice(specification, Pageable.unpaged(), properties).stream().findFirst();
+    }
+
+    /**
+     * Finds a {@link Product} by code as {@link ProductDto}.
+     *
+     * @param code product code
+     * @return optional {@link ProductDto}
+     */
+    @Query("SELECT new com.fripop.product.ws.dto.ProductDto(p.id, p.code, p.created, p.updated, p.active, p.name, p.price) FROM Product p WHERE p.code = :code")
+    Optional<ProductDto> findDtoByCode(String code);
+
+    /**
+     * Finds the id of a {@link Product} by code.
+     *
+     * @param code product code
+     * @return optional product id
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.code = :code")
+    Optional<Long> findIdByCode(String code);
+
+    /**
+     * Finds {@link Product}s by ids as {@link ProductDto}s in chunks of {@link #IN_CHUNK_SIZE} ids.
+     *
+     * @param ids product ids without duplicates
+     * @return found {@link ProductDto}s in no particular order
+     */
+    default List<ProductDto> findDtosByIds(Collection<Long> ids) {
+        return findInChunks(ids, this::findDtosByIdIn);
+    }
+
+    /**
+     * Finds {@link Product}s by codes as {@link ProductDto}s in chunks of {@link #IN_CHUNK_SIZE} codes.
+     *
+     * @param codes product codes without duplicates
+     * @return found {@link ProductDto}s in no particular order
+     */
+    default List<ProductDto> findDtosByCodes(Collection<String> codes) {
+        return findInChunks(codes, this::findDtosByCodeIn);
+    }
+
+    /**
+     * Finds {@link Product}s by ids as {@link ProductDto}s.
+     *
+     * @param ids product ids
+     * @return found {@link ProductDto}s
+     */
+    @Query("SELECT new com.fripop.product.ws.dto.ProductDto(p.id, p.code, p.created, p.updated, p.active, p.name, p.price) FROM Product p WHERE p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(Collection<Long> ids);
+
+    /**
+     * Finds {@link Product}s by codes as {@link ProductDto}s.
+     *
+     * @param codes product codes
+     * @return found {@link ProductDto}s
+     */
+    @Query("SELECT new com.fripop.product.ws.dto.ProductDto(p.id, p.code, p.created, p.updated, p.active, p.name, p.price) FROM Product p WHERE p.code IN :codes")
+    List<ProductDto> findDtosByCodeIn(Collection<String> codes);
+
+    /**
+     * Finds the {@link ProductVersion} of a {@link Product} by id.
+     *
+     * @param id product id
+     * @return optional {@link ProductVersion}
+     */
+    @Query("SELECT new com.fripop.product.ws.model.ProductVersion(p.id, COALESCE(p.updated, p.created)) FROM Product p WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(long id);
+
+    /**
+     * Streams all {@link Product}s by parameters as {@link ProductDto}s ordered by id.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param fetchSize  number of rows fetched from the database at once
+     * @return {@link Stream} of {@link ProductDto}s that must be closed
+     * @see ProductRepositoryCustom#streamAll(Specification, int)
+     */
+    default Stream<ProductDto> streamAll(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, int fetchSize) {
+        return this.streamAll(filter(name, priceStart, priceEnd, active), fetchSize);
+    }
+
+    /**
+     * Counts {@link Product}s by parameters.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @return number of matching {@link Product}s
+     */
+    default long count(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active) {
+        return this.count(filter(name, priceStart, priceEnd, active));
+    }
+
+    /**
+     * Returns the number of {@link Product}s estimated by the database planner statistics.
+     * <p>
+     * The estimate is read from the catalog without scanning the table. Negative value is returned when the table
+     * has not been analyzed yet.
+     *
+     * @return estimated number of {@link Product}s
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('product' AS regclass)", nativeQuery = true)
+    long estimateCount();
+
+    /**
+     * Finds a {@link Slice} of {@link Product}s by parameters that are positioned after the cursor as
+     * {@link ProductDto}s.
+     * <p>
+     * Instead of skipping an offset, the position is expressed as a seek predicate on the sort key and id, so the
+     * query reads only the returned rows from the index regardless of how deep the page is.
      *
      * @param name       optional part or full name of a product
      * @param priceStart optional product price start
      * @param priceEnd   optional product price end
      * @param active     optional flag for including active/inactive products
-     * @param pageable   {@link Pageable} with pagination information
-     * @return {@link Page} with {@link Product}s
+     * @param cursor     optional {@link ProductCursor} of the last read product; reading starts at the beginning when
+     *                   not provided
+     * @param sort       {@link Sort} by the cursor property and id
+     * @param size       slice size
+     * @param properties optional properties to select; all properties are selected when not provided
+     * @return {@link Slice} with {@link ProductDto}s
      */
-    default Page<Product> findAll(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, Pageable pageable) {
-        return this.findAll((root, query, builder) -> {
+    default Slice<ProductDto> findDtosAfter(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active,
+                                            ProductCursor cursor, Sort sort, int size, Set<String> properties) {
+        var specification = filter(name, priceStart, priceEnd, active);
+        if (cursor != null) {
+            specification = specification.and(after(cursor));
+        }
+
+        return this.findDtoSlice(specification, PageRequest.of(0, size, sort), properties);
+    }
+
+    /**
+     * Finds a {@link Slice} of {@link Product}s changed after the position as {@link ProductDto}s, ordered by the
+     * change timestamp and id.
+     *
+     * @param changed change {@link Timestamp} of the last read change
+     * @param id      id of the last read change
+     * @param until   {@link Timestamp} of the latest change to read
+     * @param size    slice size
+     * @return {@link Slice} with {@link ProductDto}s
+     * @see #changedAfter(Timestamp, long, Timestamp)
+     */
+    default Slice<ProductDto> findChangedAfter(Timestamp changed, long id, Timestamp until, int size) {
+        return this.findDtoSlice(changedAfter(changed, id, until), PageRequest.of(0, size));
+    }
+
+    /**
+     * Creates a {@link Specification} that filters {@link Product}s by parameters.
+     * <p>
+     * Name is matched as a case-insensitive substring.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @return {@link Specification} for {@link Product}s
+     */
+    static Specification<Product> filter(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active) {
+        return (root, query, builder) -> {
 
             var predicates = new ArrayList<Predicate>();
 
-            // Name filter.
+            // Case-insensitive name filter that is served by the trigram index on lower(name).
             if (name != null) {
-                predicates.add(builder.like(root.get("name"), "%" + name + "%"));
+                predicates.add(builder.like(builder.lower(root.get("name")), "%" + escapeLike(name.toLowerCase()) + "%", LIKE_ESCAPE));
             }
 
             // Price start filter.
@@ -56,9 +318,129 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
             }
 
             return builder.and(predicates.toArray(Predicate[]::new));
-        }, pageable);
+        };
+    }
+
+    /**
+     * Creates a {@link Specification} that orders {@link Product}s by the trigram similarity of their name to the
+     * searched name, when sorting by {@link #RELEVANCE} is requested.
+     * <p>
+     * Ranking requires scoring every matching product, so it is only applied on request. Count queries drop this
+     * order.
+     *
+     * @param name optional part or full name of a product
+     * @param sort requested {@link Sort}
+     * @return {@link Specification} for {@link Product}s
+     */
+    static Specification<Product> relevance(String name, Sort sort) {
+        return (root, query, builder) -> {
+            if (name != null && query != null && sort.getOrderFor(RELEVANCE) != null) {
+                var searchTerm = ((HibernateCriteriaBuilder) builder).value(name.toLowerCase());
+                var similarity = builder.function("similarity", Double.class, builder.lower(root.get("name")), searchTerm);
+                query.orderBy(builder.desc(similarity), builder.asc(root.get("id")));
+            }
+            return null;
+        };
     }
 
+    /**
+     * Removes sorting by {@link #RELEVANCE} which is not a {@link Product} property.
+     *
+     * @param pageable {@link Pageable} with pagination information
+     * @return {@link Pageable} without sorting by {@link #RELEVANCE}
+     */
+    static Pageable withoutRelevance(Pageable pageable) {
+        if (pageable.getSort().getOrderFor(RELEVANCE) == null) {
+            return pageable;
+        }
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : Pageable.unpaged();
+    }
+
+    /**
+     * Creates a {@link Specification} that matches {@link Product}s positioned after the cursor.
+     * <p>
+     * Equivalent of {@code (sort_key, id) > (?, ?)}, expanded into {@code sort_key >= ? and (sort_key > ? or id > ?)}
+     * so the range condition on the sort key can be used for the index scan.
+     *
+     * @param cursor {@link ProductCursor} of the last read product
+     * @return {@link Specification} for {@link Product}s
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Specification<Product> after(ProductCursor cursor) {
+        return (root, query, builder) -> {
+            var ascending = cursor.getDirection().isAscending();
+            Path<Long> id = root.get("id");
+
+            if ("id".equals(cursor.getProperty())) {
+                return ascending ? builder.greaterThan(id, cursor.getId()) : builder.lessThan(id, cursor.getId());
+            }
+
+            Path<Comparable> key = root.get(cursor.getProperty());
+            var value = (Comparable) cursor.getValue();
+            if (ascending) {
+                return builder.and(builder.greaterThanOrEqualTo(key, value),
+                        builder.or(builder.greaterThan(key, value), builder.greaterThan(id, cursor.getId())));
+            }
+            return builder.and(builder.lessThanOrEqualTo(key, value),
+                    builder.or(builder.lessThan(key, value), builder.lessThan(id, cursor.getId())));
+        };
+    }
+
+    /**
+     * Creates a {@link Specification} that matches {@link Product}s changed after the position, ordered by the change
+     * timestamp and id.
+     * <p>
+     * The change timestamp is the update timestamp, or the creation timestamp of a product that was never updated. The
+     * seek predicate is served by the expression index on the change timestamp and id declared in {@code schema.sql}.
+     *
+     * @param changed change {@link Timestamp} of the last read change
+     * @param id      id of the last read change
+     * @param until   {@link Timestamp} of the latest change to read
+     * @return {@link Specification} for {@link Product}s
+     */
+    static Specification<Product> changedAfter(Timestamp changed, long id, Timestamp until) {
+        return (root, query, builder) -> {
+            var changedKey = builder.coalesce(root.<Timestamp>get("updated"), root.<Timestamp>get("created"));
+            Path<Long> idKey = root.get("id");
+            if (query != null) {
+                query.orderBy(builder.asc(changedKey), builder.asc(idKey));
+            }
+
+            return builder.and(builder.greaterThanOrEqualTo(changedKey, changed),
+                    builder.or(builder.greaterThan(changedKey, changed), builder.greaterThan(idKey, id)),
+                    builder.lessThanOrEqualTo(changedKey, until));
+        };
+    }
+
+    /**
+     * Updates the values of a {@link Product} by id with a single statement, without reading the product first.
+     *
+     * @param id      product id
+     * @param active  flag indicating if product is active or not
+     * @param name    product name
+     * @param price   product price
+     * @param updated {@link Timestamp} of the update
+     * @return number of updated products; {@code 0} when product does not exist
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.active = :active, p.name = :name, p.price = :price, p.updated = :updated WHERE p.id = :id")
+    int updateById(long id, Boolean active, String name, BigDecimal price, Timestamp updated);
+
+    /**
+     * Deletes a {@link Product} by id with a single statement, without reading the product first.
+     * <p>
+     * A {@link com.fripop.product.ws.model.ProductTombstone} of the deleted product is written by the same statement.
+     *
+     * @param id      product id
+     * @param deleted {@link Timestamp} of the delete
+     * @return number of deleted products; {@code 0} when product does not exist
+     */
+    @Modifying
+    @Query(value = """
+            WITH deleted_product AS (DELETE FROM product WHERE id = :id RETURNING id, code)
+            INSERT INTO product_tombstone (id, code, deleted) SELECT id, code, :deleted FROM deleted_product""", nativeQuery = true)
+    int deleteProductById(long id, Timestamp deleted);
+
     /**
      * Finds {@link Product} by id.
      * <p>
@@ -71,4 +453,36 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     default Product findRequiredById(long id) throws NotFoundException {
         return this.findById(id).orElseThrow(() -> new NotFoundException("Cannot find Product with id " + id));
     }
+
+    /**
+     * Finds {@link ProductDto}s by keys with one query per chunk of {@link #IN_CHUNK_SIZE} keys.
+     * <p>
+     * Chunking keeps the number of bind parameters and the statement size bounded regardless of the number of keys,
+     * and together with in clause parameter padding only a few distinct statements are prepared and cached.
+     *
+     * @param keys   keys without duplicates
+     * @param finder finds {@link ProductDto}s by a chunk of keys
+     * @param <K>    key type
+     * @return found {@link ProductDto}s
+     */
+    static <K> List<ProductDto> findInChunks(Collection<K> keys, Function<List<K>, List<ProductDto>> finder) {
+        var keyList = List.copyOf(keys);
+        var products = new ArrayList<ProductDto>(keyList.size());
+        for (var start = 0; start < keyList.size(); start += IN_CHUNK_SIZE) {
+            products.addAll(finder.apply(keyList.subList(start, Math.min(start + IN_CHUNK_SIZE, keyList.size()))));
+        }
+        return products;
+    }
+
+    /**
+     * Escapes like pattern wildcards so that the value is matched literally.
+     *
+     * @param value value to escape
+     * @return escaped value
+     */
+    static String escapeLike(String value) {
+        return value.replace(String.valueOf(LIKE_ESCAPE), LIKE_ESCAPE + String.valueOf(LIKE_ESCAPE))
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+    }
 }
@@ -0,0 +1,152 @@
+package com.fripop.product.ws.repository;
+
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.model.ProductVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Custom repository fragment for {@link Product} entity.
+ * <p>
+ * Contains operations that cannot be expressed with derived or annotated queries.
+ *
+ * @since 1.0.0
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Persists all new {@link Product}s using JDBC batches.
+     * <p>
+     * Persistence context is flushed and cleared after every batch so memory usage does not grow with the number of
+     * products.
+     *
+     * @param products new {@link Product}s to persist
+     */
+    void persistAll(Collection<Product> products);
+
+    /**
+     * Inserts new {@link Product}s using the COPY protocol and skips products with a code that already exists.
+     * <p>
+     * Products are copied into a temporary staging table and moved with a single insert, so no statement is executed
+     * per product. Ids are assigned from blocks reserved in the id sequence. Products must have all other values set,
+     * since entity callbacks are not executed. Must be called within a transaction.
+     *
+     * @param products new {@link Product}s to insert
+     * @return ids of inserted {@link Product}s
+     */
+    Set<Long> copyAll(List<Product> products);
+
+    /**
+     * Updates all values of existing {@link Product}s by id using a single JDBC batch.
+     * <p>
+     * Every product must have its id, active flag, name, price and update timestamp set; other values are not
+     * written. Products that do not exist are skipped. Must be called within a transaction.
+     *
+     * @param products {@link Product}s with new values
+     * @return ids of updated {@link Product}s
+     */
+    Set<Long> updateAll(List<Product> products);
+
+    /**
+     * Updates the values of the existing {@link Product} with the code, or inserts a new one.
+     * <p>
+     * A single insert statement updates the product instead when the code exists, so a product inserted concurrently
+     * with the same code is updated as well. The id is taken from the {@link ProductIdBlock} without a database round
+     * trip, so an update leaves only one already reserved id unused. Must be called within a transaction.
+     *
+     * @param code    product code
+     * @param active  flag indicating if product is active or not
+     * @param name    product name
+     * @param price   product price
+     * @param changed {@link Timestamp} of the creation or update
+     * @return inserted or updated {@link ProductDto}; the update timestamp is empty when the product was inserted
+     */
+    ProductDto upsertByCode(String code, Boolean active, String name, BigDecimal price, Timestamp changed);
+
+    /**
+     * Updates only the given values of a {@link Product} by id with a single statement.
+     * <p>
+     * Values that are {@code null} are not changed and only the given columns are written. The product is not updated
+     * when all given values already match the stored ones, so its update timestamp stays the same.
+     *
+     * @param id      product id
+     * @param active  optional flag indicating if product is active or not
+     * @param name    optional product name
+     * @param price   optional product price
+     * @param updated {@link Timestamp} of the update
+     * @return number of updated products; {@code 0} when product does not exist or did not change
+     */
+    int patchById(long id, Boolean active, String name, BigDecimal price, Timestamp updated);
+
+    /**
+     * Finds a {@link Slice} of {@link Product}s matching the {@link Specification}.
+     * <p>
+     * Unlike a page, a slice does not require counting all matching products. One additional product is read to
+     * find out whether there is a next slice.
+     *
+     * @param specification {@link Specification} for {@link Product}s
+     * @param pageable      {@link Pageable} with pagination information
+     * @return {@link Slice} with {@link Product}s
+     */
+    Slice<Product> findSlice(Specification<Product> specification, Pageable pageable);
+
+    /**
+     * Finds a {@link Slice} of {@link Product}s matching the {@link Specification} as {@link ProductDto}s.
+     * <p>
+     * Columns are selected directly into {@link ProductDto}s, so no entities are created, attached to the persistence
+     * context or mapped. Reads the same products as {@link #findSlice(Specification, Pageable)}.
+     *
+     * @param specification {@link Specification} for {@link Product}s
+     * @param pageable      {@link Pageable} with pagination information
+     * @return {@link Slice} with {@link ProductDto}s
+     */
+    Slice<ProductDto> findDtoSlice(Specification<Product> specification, Pageable pageable);
+
+    /**
+     * Finds a {@link Slice} of {@link Product}s matching the {@link Specification} as {@link ProductDto}s with only
+     * the selected properties.
+     * <p>
+     * Only the columns of the selected properties are read and the other properties of the {@link ProductDto}s are
+     * {@code null}.
+     *
+     * @param specification {@link Specification} for {@link Product}s
+     * @param pageable      {@link Pageable} with pagination information
+     * @param properties    optional properties to select; all properties are selected when not provided
+     * @return {@link Slice} with {@link ProductDto}s
+     */
+    Slice<ProductDto> findDtoSlice(Specification<Product> specification, Pageable pageable, Set<String> properties);
+
+    /**
+     * Finds a {@link Slice} of {@link ProductVersion}s of {@link Product}s matching the {@link Specification}.
+     * <p>
+     * Reads only ids and change timestamps in the same order and with the same pagination as
+     * {@link #findSlice(Specification, Pageable)}.
+     *
+     * @param specification {@link Specification} for {@link Product}s
+     * @param pageable      {@link Pageable} with pagination information
+     * @return {@link Slice} with {@link ProductVersion}s
+     */
+    Slice<ProductVersion> findVersionSlice(Specification<Product> specification, Pageable pageable);
+
+    /**
+     * Streams all {@link Product}s matching the {@link Specification} as {@link ProductDto}s ordered by id.
+     * <p>
+     * Rows are read through a forward-only database cursor in chunks of the fetch size and are not attached to the
+     * persistence context, so memory usage does not grow with the number of products. Must be called within a
+     * transaction and the returned stream must be closed.
+     *
+     * @param specification {@link Specification} for {@link Product}s
+     * @param fetchSize     number of rows fetched from the database at once
+     * @return {@link Stream} of {@link ProductDto}s
+     */
+    Stream<ProductDto> streamAll(Specification<Product> specification, int fetchSize);
+}
@@ -0,0 +1,385 @@
+package com.fripop.product.ws.repository;
+
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.model.ProductVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Implementation of {@link ProductRepositoryCustom}.
+ *
+ * @since 1.0.0
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductIdBlock productIdBlock;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    public void persistAll(Collection<Product> products) {
+        var count = 0;
+        for (var product : products) {
+            entityManager.persist(product);
+
+            // Send the current batch to the database and release the persisted entities.
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public Set<Long> copyAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return Set.of();
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            reserveIds(connection, products);
+
+            try (var statement = connection.createStatement()) {
+                statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS product_import (LIKE product)");
+            }
+
+            // Send all products as a single CSV stream.
+            var rows = new StringBuilder(products.size() * 128);
+            for (var product : products) {
+                rows.append(product.getId()).append(',')
+                        .append(csvValue(product.getCode())).append(',')
+                        .append(product.getCreated()).append(',')
+                        .append(product.getActive()).append(',')
+                        .append(csvValue(product.getName())).append(',')
+                        .append(product.getPrice().toPlainString()).append('\n');
+            }
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY product_import (id, code, created, active, name, price) FROM STDIN (FORMAT csv)", new StringReader(rows.toString()));
+            } catch (IOException e) {
+                throw new SQLException("Cannot copy products", e);
+            }
+
+            var insertedIds = new HashSet<Long>(products.size() * 2);
+            try (var statement = connection.createStatement()) {
+                try (var resultSet = statement.executeQuery("""
+                        INSERT INTO product (id, code, created, active, name, price)
+                        SELECT id, code, created, active, name, price FROM product_import
+                        ON CONFLICT (code) DO NOTHING
+                        RETURNING id""")) {
+                    while (resultSet.next()) {
+                        insertedIds.add(resultSet.getLong(1));
+                    }
+                }
+                statement.execute("TRUNCATE product_import");
+            }
+            return insertedIds;
+        });
+    }
+
+    @Override
+    public Set<Long> updateAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return Set.of();
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("UPDATE product SET active = ?, name = ?, price = ?, updated = ? WHERE id = ?")) {
+                for (var product : products) {
+                    statement.setBoolean(1, product.getActive());
+                    statement.setString(2, product.getName());
+                    statement.setBigDecimal(3, product.getPrice());
+                    statement.setTimestamp(4, product.getUpdated());
+                    statement.setLong(5, product.getId());
+                    statement.addBatch();
+                }
+
+                // Products that do not exist have no updated row.
+                var updatedRows = statement.executeBatch();
+                var updatedIds = new HashSet<Long>(products.size() * 2);
+                for (var index = 0; index < updatedRows.length; index++) {
+                    if (updatedRows[index] > 0) {
+                        updatedIds.add(products.get(index).getId());
+                    }
+                }
+                return updatedIds;
+            }
+        });
+    }
+
+    @Override
+    public ProductDto upsertByCode(String code, Boolean active, String name, BigDecimal price, Timestamp changed) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                    INSERT INTO product (id, code, created, active, name, price)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    ON CONFLICT (code) DO UPDATE SET active = EXCLUDED.active, name = EXCLUDED.name, price = EXCLUDED.price, updated = EXCLUDED.created
+                    RETURNING id, code, created, updated, active, name, price""")) {
+                statement.setLong(1, nextId(connection));
+                statement.setString(2, code);
+                statement.setTimestamp(3, changed);
+                statement.setObject(4, active, Types.BOOLEAN);
+                statement.setString(5, name);
+                statement.setBigDecimal(6, price);
+
+                // Created timestamp of an existing product is kept, so only an inserted product has no update timestamp.
+                return readProductDto(statement);
+            }
+        });
+    }
+
+    @Override
+    public int patchById(long id, Boolean active, String name, BigDecimal price, Timestamp updated) {
+        if (active == null && name == null && price == null) {
+            return 0;
+        }
+
+        var builder = entityManager.getCriteriaBuilder();
+        var update = builder.createCriteriaUpdate(Product.class);
+        var root = update.from(Product.class);
+
+        // Set only the given columns and skip the update when none of them would change.
+        var changes = new ArrayList<Predicate>(3);
+        if (active != null) {
+            update.set(root.<Boolean>get("active"), active);
+            changes.add(builder.notEqual(root.get("active"), active));
+        }
+        if (name != null) {
+            update.set(root.<String>get("name"), name);
+            changes.add(builder.notEqual(root.get("name"), name));
+        }
+        if (price != null) {
+            update.set(root.<BigDecimal>get("price"), price);
+            changes.add(builder.notEqual(root.get("price"), price));
+        }
+        update.set(root.<Timestamp>get("updated"), updated);
+        update.where(builder.equal(root.get("id"), id), builder.or(changes.toArray(Predicate[]::new)));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public Slice<Product> findSlice(Specification<Product> specification, Pageable pageable) {
+        return findSlice(specification, pageable, Product.class, (query, root) -> query.select(root));
+    }
+
+    @Override
+    public Slice<ProductDto> findDtoSlice(Specification<Product> specification, Pageable pageable) {
+        return findDtoSlice(specification, pageable, null);
+    }
+
+    @Override
+    public Slice<ProductDto> findDtoSlice(Specification<Product> specification, Pageable pageable, Set<String> properties) {
+        var builder = entityManager.getCriteriaBuilder();
+        return findSlice(specification, pageable, ProductDto.class, (query, root) -> query.select(dtoSelection(builder, root, properties)));
+    }
+
+    @Override
+    public Slice<ProductVersion> findVersionSlice(Specification<Product> specification, Pageable pageable) {
+        var builder = entityManager.getCriteriaBuilder();
+        return findSlice(specification, pageable, ProductVersion.class, (query, root) -> query.select(builder.construct(
+                ProductVersion.class, root.get("id"), builder.coalesce(root.get("updated"), root.get("created")))));
+    }
+
+    @Override
+    public Stream<ProductDto> streamAll(Specification<Product> specification, int fetchSize) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(ProductDto.class);
+        var root = query.from(Product.class);
+        query.select(dtoSelection(builder, root, null));
+
+        var predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Finds a {@link Slice} of results selected from {@link Product}s matching the {@link Specification}.
+     *
+     * @param specification {@link Specification} for {@link Product}s
+     * @param pageable      {@link Pageable} with pagination information
+     * @param resultType    result type
+     * @param selection     selects the result from the {@link Product} root
+     * @param <T>           result type
+     * @return {@link Slice} with results
+     */
+    private <T> Slice<T> findSlice(Specification<Product> specification, Pageable pageable, Class<T> resultType,
+                                   BiConsumer<CriteriaQuery<T>, Root<Product>> selection) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(resultType);
+        var root = query.from(Product.class);
+        selection.accept(query, root);
+
+        var predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(pageable.getSort(), root, builder));
+        }
+
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        }
+
+        var results = typedQuery.getResultList();
+        var hasNext = pageable.isPaged() && results.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? results.subList(0, pageable.getPageSize()) : results, pageable, hasNext);
+    }
+
+    /**
+     * Creates a selection of {@link ProductDto}s constructed directly from the {@link Product} columns.
+     * <p>
+     * Properties that are not selected are set to {@code null} literals, so their columns are not read.
+     *
+     * @param builder    {@link CriteriaBuilder}
+     * @param root       {@link Product} root
+     * @param properties optional properties to select; all properties are selected when not provided
+     * @return {@link ProductDto} selection
+     */
+    private static CompoundSelection<ProductDto> dtoSelection(CriteriaBuilder builder, Root<Product> root, Set<String> properties) {
+        return builder.construct(ProductDto.class, property(builder, root, "id", Long.class, properties),
+                property(builder, root, "code", String.class, properties), property(builder, root, "created", Timestamp.class, properties),
+                property(builder, root, "updated", Timestamp.class, properties), property(builder, root, "active", Boolean.class, properties),
+                property(builder, root, "name", String.class, properties), property(builder, root, "price", BigDecimal.class, properties));
+    }
+
+    /**
+     * Selects a {@link Product} property, or a {@code null} literal when the property is not selected.
+     *
+     * @param builder    {@link CriteriaBuilder}
+     * @param root       {@link Product} root
+     * @param property   property name
+     * @param type       property type
+     * @param properties optional properties to select; all properties are selected when not provided
+     * @param <T>        property type
+     * @return property {@link Expression}
+     */
+    private static <T> Expression<T> property(CriteriaBuilder builder, Root<Product> root, String property, Class<T> type, Set<String> properties) {
+        return properties == null || properties.contains(property) ? root.get(property) : builder.nullLiteral(type);
+    }
+
+    /**
+     * Executes a statement returning a single product row and reads it as {@link ProductDto}.
+     *
+     * @param statement {@link PreparedStatement} returning product columns
+     * @return {@link ProductDto}, or {@code null} when no row was returned
+     * @throws SQLException when the statement fails
+     */
+    private static ProductDto readProductDto(PreparedStatement statement) throws SQLException {
+        try (var resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            return new ProductDto(resultSet.getLong("id"), resultSet.getString("code"), resultSet.getTimestamp("created"),
+                    resultSet.getTimestamp("updated"), resultSet.getBoolean("active"), resultSet.getString("name"),
+                    resultSet.getBigDecimal("price"));
+        }
+    }
+
+    /**
+     * Returns the next id from the {@link ProductIdBlock}, reserving a new block when it is used up.
+     *
+     * @param connection {@link Connection}
+     * @return product id
+     * @throws SQLException when a block cannot be reserved
+     */
+    private long nextId(Connection connection) throws SQLException {
+        var id = productIdBlock.next();
+        if (id != null) {
+            return id;
+        }
+
+        try (var statement = connection.prepareStatement(ProductIdBlock.RESERVE_SQL); var resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return productIdBlock.reserve(resultSet.getLong(1));
+        }
+    }
+
+    /**
+     * Assigns ids to the products from blocks reserved in the id sequence.
+     * <p>
+     * Every sequence value reserves a block of {@link Product#ID_ALLOCATION_SIZE} ids, the same way as the pooled-lo
+     * optimizer used for persisted products, so the ids never collide.
+     *
+     * @param connection {@link Connection}
+     * @param products   {@link Product}s without ids
+     * @throws SQLException when ids cannot be reserved
+     */
+    private void reserveIds(Connection connection, List<Product> products) throws SQLException {
+        var blocks = (products.size() + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+        try (var statement = connection.prepareStatement("SELECT nextval('" + Product.ID_SEQUENCE + "') FROM generate_series(1, ?)")) {
+            statement.setInt(1, blocks);
+            try (var resultSet = statement.executeQuery()) {
+                var index = 0;
+                while (resultSet.next()) {
+                    var blockStart = resultSet.getLong(1);
+                    for (var offset = 0; offset < Product.ID_ALLOCATION_SIZE && index < products.size(); offset++) {
+                        products.get(index++).setId(blockStart + offset);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Quotes a value for the CSV format of the COPY protocol.
+     *
+     * @param value value
+     * @return quoted value
+     */
+    private static String csvValue(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,45 @@
+package com.fripop.product.ws.repository;
+
+import com.fripop.product.ws.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JPA repository for {@link ProductTombstone} entity.
+ *
+ * @since 1.0.0
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Finds {@link ProductTombstone}s positioned after the deletion timestamp and id, ordered by both.
+     * <p>
+     * Like {@link ProductRepository#after(com.fripop.product.ws.util.ProductCursor)}, the position is expressed as a
+     * seek predicate served by the index on deletion timestamp and id.
+     *
+     * @param deleted {@link Timestamp} of the last read change
+     * @param id      id of the last read change
+     * @param until   {@link Timestamp} of the latest deletion to read
+     * @param limit   maximum number of tombstones
+     * @return {@link ProductTombstone}s
+     */
+    @Query("SELECT t FROM ProductTombstone t WHERE t.deleted >= :deleted AND (t.deleted > :deleted OR t.id > :id) AND t.deleted <= :until ORDER BY t.deleted, t.id")
+    List<ProductTombstone> findAfter(Timestamp deleted, long id, Timestamp until, Limit limit);
+
+    /**
+     * Deletes {@link ProductTombstone}s of products deleted before the timestamp with a single statement.
+     *
+     * @param deleted {@link Timestamp} of the oldest deletion to keep
+     * @return number of deleted tombstones
+     */
+    @Modifying
+    @Query("DELETE FROM ProductTombstone t WHERE t.deleted < :deleted")
+    int deleteDeletedBefore(Timestamp deleted);
+}
@@ -0,0 +1,350 @@
+package com.fripop.product.ws.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fripop.product.ws.dto.ProductChangeDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.util.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ProductChangeFeed} sends product changes to subscribers as server-sent events.
+ * <p>
+ * Committed changes are numbered and kept in a ring of a bounded size. A single dispatcher thread hands new changes of
+ * every subscriber to a small pool of writer threads, so subscribers do not occupy a thread while they wait. Every
+ * change is serialized once, and all changes pending for a subscriber are sent with a single flush.
+ * <p>
+ * A slow subscriber cannot hold back the others: it has at most one write in progress, and no more than the backlog
+ * size of changes are kept for it. A subscriber that falls further behind skips the changes and receives a
+ * {@value #RESET_EVENT} event, and a subscriber whose write does not complete within the send timeout is dropped.
+ * <p>
+ * Event ids consist of the start time of this instance and the change number. A subscriber that reconnects with the id
+ * of the last received event receives the changes it missed. When they are no longer in the ring, or were sent by
+ * another instance, a {@value #RESET_EVENT} event is sent instead, after which the subscriber should read the products
+ * again. Only changes made through this instance are sent.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductChangeFeed implements DisposableBean {
+
+    /**
+     * Name of the event telling the subscriber that changes were missed.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final Logger logger = Logger.getLogger(ProductChangeFeed.class);
+    private final ObjectWriter productChangeWriter;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final long heartbeatIntervalNanos;
+    private final long sendTimeoutNanos;
+    private final int subscriberBacklog;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Counter droppedSubscribers;
+    private final Thread dispatcherThread;
+    private final ExecutorService writerExecutor;
+
+    /**
+     * Serialized recent changes; the change with number {@code n} is stored at index {@code n % changes.length}. Guards
+     * all fields below and the subscriber cursors.
+     */
+    private final String[] changes;
+    private long nextSequence = 1;
+    private boolean changed;
+
+    public ProductChangeFeed(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${product.changes.buffer-size:10000}") int bufferSize,
+                             @Value("${product.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                             @Value("${product.changes.send-timeout:10s}") Duration sendTimeout,
+                             @Value("${product.changes.subscriber-backlog:10000}") int subscriberBacklog,
+                             @Value("${product.changes.writer-threads:8}") int writerThreads) {
+        this.productChangeWriter = objectMapper.writerFor(ProductChangeDto.class);
+        this.changes = new String[bufferSize];
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.subscriberBacklog = Math.min(subscriberBacklog, bufferSize);
+        Gauge.builder("product.changes.subscribers", subscribers, List::size).register(meterRegistry);
+        this.droppedSubscribers = meterRegistry.counter("product.changes.dropped");
+
+        var writerNumber = new AtomicInteger();
+        this.writerExecutor = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            var thread = new Thread(runnable, "product-change-feed-writer-" + writerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcherThread = new Thread(this::dispatch, "product-change-feed");
+        this.dispatcherThread.setDaemon(true);
+        this.dispatcherThread.start();
+    }
+
+    /**
+     * Subscribes to product changes.
+     *
+     * @param lastEventId optional id of the last event received by the subscriber
+     * @return {@link SseEmitter} receiving the changes
+     * @throws IOException when the subscriber cannot be answered
+     */
+    public SseEmitter subscribe(String lastEventId) throws IOException {
+        var emitter = new SseEmitter();
+        var subscriber = new Subscriber(emitter);
+        synchronized (changes) {
+            var resumedSequence = resumedSequence(lastEventId);
+            if (lastEventId == null) {
+                subscriber.cursor = nextSequence;
+            } else if (resumedSequence >= oldestSequence() && resumedSequence <= nextSequence) {
+                subscriber.cursor = resumedSequence;
+            } else {
+                subscriber.cursor = nextSequence;
+                subscriber.reset = true;
+            }
+        }
+
+        // Commit the response right away, so the subscriber knows it receives the following changes.
+        emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Let the dispatcher send the missed changes.
+        synchronized (changes) {
+            changed = true;
+            changes.notifyAll();
+        }
+        return emitter;
+    }
+
+    /**
+     * Adds the change to the ring after it is committed, or immediately when the change was made outside of a
+     * transaction, like by the {@link ProductReactiveService}.
+     *
+     * @param productEvent {@link ProductEvent}
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEvent productEvent) {
+        var change = serialize(new ProductChangeDto(productEvent.getType(), productEvent.getId()));
+        synchronized (changes) {
+            changes[(int) (nextSequence % changes.length)] = change;
+            nextSequence++;
+            changed = true;
+            changes.notifyAll();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        dispatcherThread.interrupt();
+        dispatcherThread.join(TimeUnit.SECONDS.toMillis(5));
+        writerExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Hands changes of the subscribers to the writer threads until the dispatcher thread is interrupted.
+     * <p>
+     * The dispatcher wakes up at least once per send timeout to drop subscribers whose write does not complete.
+     */
+    private void dispatch() {
+        var nextHeartbeat = System.nanoTime() + heartbeatIntervalNanos;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (changes) {
+                    var wakeUp = Math.min(nextHeartbeat - System.nanoTime(), sendTimeoutNanos);
+                    var wakeUpTime = System.nanoTime() + wakeUp;
+                    var remainingNanos = wakeUp;
+                    while (!changed && remainingNanos > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(changes, remainingNanos);
+                        remainingNanos = wakeUpTime - System.nanoTime();
+                    }
+                    changed = false;
+                }
+
+                // Heartbeats reveal closed connections of subscribers without changes.
+                var now = System.nanoTime();
+                var heartbeat = now - nextHeartbeat >= 0;
+                if (heartbeat) {
+                    nextHeartbeat = now + heartbeatIntervalNanos;
+                }
+                for (var subscriber : subscribers) {
+                    var writeStarted = subscriber.writeStarted;
+                    if (writeStarted == 0 && (heartbeat || hasPending(subscriber))) {
+                        subscriber.writeStarted = now;
+                        writerExecutor.execute(() -> send(subscriber, heartbeat));
+                    } else if (writeStarted != 0 && now - writeStarted > sendTimeoutNanos) {
+                        drop(subscriber);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.log(e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the subscriber did not receive some changes yet.
+     *
+     * @param subscriber {@link Subscriber}
+     * @return {@code true} when changes or a {@value #RESET_EVENT} event are pending
+     */
+    private boolean hasPending(Subscriber subscriber) {
+        synchronized (changes) {
+            return subscriber.reset || subscriber.cursor < nextSequence;
+        }
+    }
+
+    /**
+     * Drops a subscriber whose write did not complete within the send timeout.
+     * <p>
+     * The subscriber receives no more changes. Its connection is completed by the writer thread once the blocked write
+     * returns, so the dispatcher never waits for it.
+     *
+     * @param subscriber {@link Subscriber}
+     */
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.dropped = true;
+            droppedSubscribers.increment();
+            logger.info("Dropped product change subscriber after {} ms without completing a write", TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+        }
+    }
+
+    /**
+     * Sends all changes the subscriber did not receive yet on a writer thread.
+     * <p>
+     * When more changes than the backlog size are pending, the subscriber skips them and receives a
+     * {@value #RESET_EVENT} event instead. Changes committed during the write are sent by the following write.
+     *
+     * @param subscriber {@link Subscriber}
+     * @param heartbeat  whether to send a heartbeat when there are no changes
+     */
+    private void send(Subscriber subscriber, boolean heartbeat) {
+        try {
+            write(subscriber, heartbeat);
+        } finally {
+            subscriber.writeStarted = 0;
+            if (subscriber.dropped) {
+                subscriber.emitter.completeWithError(new IOException("Product change subscriber is too slow"));
+            }
+            synchronized (changes) {
+                if (subscriber.cursor < nextSequence) {
+                    changed = true;
+                    changes.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all changes the subscriber did not receive yet.
+     *
+     * @param subscriber {@link Subscriber}
+     * @param heartbeat  whether to send a heartbeat when there are no changes
+     */
+    private void write(Subscriber subscriber, boolean heartbeat) {
+        var events = new LinkedHashSet<ResponseBodyEmitter.DataWithMediaType>();
+        synchronized (changes) {
+            if (subscriber.reset || subscriber.cursor < oldestSequence() || nextSequence - subscriber.cursor > subscriberBacklog) {
+                events.addAll(SseEmitter.event().name(RESET_EVENT).id(eventId(nextSequence - 1)).data(RESET_EVENT).build());
+            } else {
+                for (var sequence = subscriber.cursor; sequence < nextSequence; sequence++) {
+                    events.addAll(SseEmitter.event().id(eventId(sequence))
+                            .data(changes[(int) (sequence % changes.length)], MediaType.APPLICATION_JSON).build());
+                }
+            }
+            subscriber.cursor = nextSequence;
+            subscriber.reset = false;
+        }
+        if (events.isEmpty() && heartbeat) {
+            events.addAll(SseEmitter.event().comment("heartbeat").build());
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            subscriber.emitter.send(events);
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            if (!subscriber.dropped) {
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the oldest change still kept in the ring.
+     *
+     * @return oldest change number
+     */
+    private long oldestSequence() {
+        return Math.max(1, nextSequence - changes.length);
+    }
+
+    /**
+     * Returns the number of the first change following the last received event.
+     *
+     * @param lastEventId optional id of the last received event
+     * @return change number, or {@code -1} when the event was not sent by this instance
+     */
+    private long resumedSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1)) + 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private String serialize(ProductChangeDto productChange) {
+        try {
+            return productChangeWriter.writeValueAsString(productChange);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change of product with id " + productChange.getId(), e);
+        }
+    }
+
+    /**
+     * Subscriber with the number of the next change it should receive and the start of its write in progress.
+     */
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+        private long cursor;
+        private boolean reset;
+        private volatile long writeStarted;
+        private volatile boolean dropped;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.fripop.product.ws.service;
+
+import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.service.ProductQueryMetrics.Query;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link ProductCountEstimator} is responsible for estimating the number of products matching a filter.
+ * <p>
+ * The number of all products is read from the database planner statistics. The number of filtered products is
+ * counted once and reused for a short time for the same normalized filter.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductCountEstimator {
+
+    private final ProductRepository productRepository;
+    private final ProductQueryMetrics productQueryMetrics;
+    private final Cache<List<Object>, Long> counts;
+
+    public ProductCountEstimator(ProductRepository productRepository, ProductQueryMetrics productQueryMetrics,
+                                 @Value("${product.count-cache.ttl:30s}") Duration ttl,
+                                 @Value("${product.count-cache.maximum-size:1000}") long maximumSize) {
+        this.productRepository = productRepository;
+        this.productQueryMetrics = productQueryMetrics;
+        this.counts = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Estimates the number of products by parameters.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @return estimated number of products
+     */
+    public long estimate(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active) {
+
+        // Use planner statistics when all products are counted and the table has already been analyzed.
+        if (name == null && priceStart == null && priceEnd == null && active == null) {
+            var estimate = productRepository.estimateCount();
+            if (estimate >= 0) {
+                return estimate;
+            }
+        }
+
+        // Normalize the case-insensitive name and prices so that equal filters share the same count.
+        var key = Arrays.<Object>asList(name != null ? name.toLowerCase() : null,
+                priceStart != null ? priceStart.stripTrailingZeros() : null,
+                priceEnd != null ? priceEnd.stripTrailingZeros() : null,
+                active);
+
+        return counts.get(key, ignored -> productQueryMetrics.record(Query.COUNT, name, priceStart, priceEnd, active, null,
+                () -> productRepository.count(name, priceStart, priceEnd, active)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.fripop.product.ws.service;
+
+import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.exception.BadRequestException;
+import com.fripop.product.ws.model.ProductTombstone;
+import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.repository.ProductTombstoneRepository;
+import com.fripop.product.ws.service.ProductQueryMetrics.Query;
+import com.fripop.product.ws.util.Logger;
+import com.fripop.product.ws.util.ProductCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductDeltaService} is responsible for reading product changes for delta synchronization.
+ * <p>
+ * Created, updated and deleted products are read in the order of their change timestamp and id, so a client can
+ * resume reading after the last received change and reads only the products changed since then. Deleted products are
+ * read from their {@link ProductTombstone}s, which are kept for the tombstone retention. Changes younger than the settle
+ * time are not read yet, so changes committed late, written by the update buffer or not yet replicated are not skipped.
+ *
+ * @since 1.0.0
+ */
+@Service
+public class ProductDeltaService {
+
+    private final Logger logger = Logger.getLogger(ProductDeltaService.class);
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductQueryMetrics productQueryMetrics;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+
+    public ProductDeltaService(ProductRepository productRepository, ProductTombstoneRepository productTombstoneRepository,
+                               ProductQueryMetrics productQueryMetrics,
+                               @Value("${product.delta.settle-time:5s}") Duration settleTime,
+                               @Value("${product.delta.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productQueryMetrics = productQueryMetrics;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Finds products changed after the timestamp or the cursor, including deleted products.
+     * <p>
+     * The returned {@link ObjectsResponseDto} always contains the cursor of the last returned change, or the requested
+     * position when no products changed, so the client can resume from it later.
+     *
+     * @param updatedSince optional {@link Instant} since which changes are read; required when cursor is not provided
+     * @param cursor       optional cursor returned with the previous changes
+     * @param size         maximum number of changes
+     * @return {@link ObjectsResponseDto} containing a collection of changed {@link ProductDto}s and the next cursor
+     * @throws BadRequestException when position is missing, not valid or older than the tombstone retention
+     */
+    @Transactional(readOnly = true)
+    public ObjectsResponseDto<ProductDto> findAllChanged(Instant updatedSince, String cursor, int size) throws BadRequestException {
+        ProductCursor position;
+        if (cursor != null) {
+            position = ProductCursor.decode(cursor);
+            if (!ProductCursor.CHANGED.equals(position.getProperty())) {
+                throw new BadRequestException("Invalid cursor " + cursor);
+            }
+        } else if (updatedSince != null) {
+            position = new ProductCursor(ProductCursor.CHANGED, Sort.Direction.ASC, Timestamp.from(updatedSince), 0);
+        } else {
+            throw new BadRequestException("Delta pagination requires updated-since or cursor");
+        }
+
+        // Deletes older than the retention cannot be returned anymore.
+        var now = Instant.now();
+        var changed = (Timestamp) position.getValue();
+        var retainedSince = now.minus(tombstoneRetention);
+        if (changed.toInstant().isBefore(retainedSince)) {
+            throw new BadRequestException("Changes before " + retainedSince + " are not available, read all products again");
+        }
+        var until = Timestamp.from(now.minus(settleTime));
+
+        // Read up to size changes from both tables and merge them in the order of change timestamp and id.
+        var productsSlice = productQueryMetrics.record(Query.FIND_ALL,
+                () -> productRepository.findChangedAfter(changed, position.getId(), until, size));
+        var tombstones = productQueryMetrics.record(Query.FIND_ALL,
+                () -> productTombstoneRepository.findAfter(changed, position.getId(), until, Limit.of(size + 1)));
+
+        var products = productsSlice.getContent();
+        var changes = new ArrayList<ProductDto>(Math.min(size, products.size() + tombstones.size()));
+        var productIndex = 0;
+        var tombstoneIndex = 0;
+        while (changes.size() < size && (productIndex < products.size() || tombstoneIndex < tombstones.size())) {
+            if (tombstoneIndex == tombstones.size()
+                    || productIndex < products.size() && isBefore(products.get(productIndex), tombstones.get(tombstoneIndex))) {
+                changes.add(products.get(productIndex++));
+            } else {
+                changes.add(toProductDto(tombstones.get(tombstoneIndex++)));
+            }
+        }
+        var hasNext = productsSlice.hasNext() || products.size() + tombstones.size() > size;
+        var next = changes.isEmpty() ? position : ProductCursor.of(changes.get(changes.size() - 1), Sort.Order.asc(ProductCursor.CHANGED));
+
+        return new ObjectsResponseDto<>(null, changes, next.encode(), hasNext);
+    }
+
+    /**
+     * Deletes tombstones older than the tombstone retention every hour.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    @Transactional
+    public void purgeTombstones() {
+        var deleted = Timestamp.from(Instant.now().minus(tombstoneRetention));
+        long purged = productQueryMetrics.record(Query.DELETE, () -> productTombstoneRepository.deleteDeletedBefore(deleted));
+        if (purged > 0) {
+            logger.info("Purged {} product tombstones", purged);
+        }
+    }
+
+    /**
+     * Checks whether the product changed before the product was deleted, comparing change timestamps and ids.
+     *
+     * @param product   changed {@link ProductDto}
+     * @param tombstone {@link ProductTombstone}
+     * @return {@code true} when product changed first
+     */
+    private static boolean isBefore(ProductDto product, ProductTombstone tombstone) {
+        var changed = product.getUpdated() != null ? product.getUpdated() : product.getCreated();
+        var order = changed.compareTo(tombstone.getDeleted());
+        return order < 0 || order == 0 && product.getId() < tombstone.getId();
+    }
+
+    /**
+     * Converts {@link ProductTombstone} to a deleted {@link ProductDto}.
+     *
+     * @param tombstone {@link ProductTombstone} to convert
+     * @return deleted {@link ProductDto}
+     */
+    private static ProductDto toProductDto(ProductTombstone tombstone) {
+        return new ProductDto(tombstone.getId(), tombstone.getCode(), null, tombstone.getDeleted(), null, null, null, true);
+    }
+}
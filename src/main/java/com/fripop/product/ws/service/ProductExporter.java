@@ -0,0 +1,119 @@
+package com.fripop.product.ws.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fripop.product.ws.dto.DataFormat;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * {@link ProductExporter} is responsible for streaming products to an {@link OutputStream}.
+ * <p>
+ * Products are read through a database cursor and written one by one, so memory usage stays constant regardless of
+ * the number of exported products. When the client disconnects, the next write fails and the cursor is closed.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductExporter {
+
+    private static final String CSV_HEADER = "id,code,created,updated,active,name,price";
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ProductExporter(ProductRepository productRepository, ObjectMapper objectMapper,
+                           @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes all products matching the parameters to the output stream, ordered by id.
+     *
+     * @param name         optional part or full name of a product
+     * @param priceStart   optional product price start
+     * @param priceEnd     optional product price end
+     * @param active       optional flag for including active/inactive products
+     * @param dataFormat   {@link DataFormat}
+     * @param outputStream {@link OutputStream} that is flushed but not closed
+     * @throws IOException when writing fails, for example because the client disconnected
+     */
+    @Transactional(readOnly = true)
+    public void export(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, DataFormat dataFormat,
+                       OutputStream outputStream) throws IOException {
+        try (var products = productRepository.streamAll(name, priceStart, priceEnd, active, fetchSize)) {
+            if (dataFormat == DataFormat.CSV) {
+                writeCsv(products.iterator(), outputStream);
+            } else {
+                writeNdjson(products.iterator(), outputStream);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<ProductDto> products, OutputStream outputStream) throws IOException {
+
+        // Rely on the generator buffer instead of flushing the output stream after every product.
+        var writer = objectMapper.writerFor(ProductDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (products.hasNext()) {
+                writer.writeValue(generator, products.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<ProductDto> products, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (products.hasNext()) {
+            var product = products.next();
+            writer.write(String.valueOf(product.getId()));
+            writer.write(',');
+            writer.write(csvValue(product.getCode()));
+            writer.write(',');
+            writer.write(product.getCreated() != null ? product.getCreated().toInstant().toString() : "");
+            writer.write(',');
+            writer.write(product.getUpdated() != null ? product.getUpdated().toInstant().toString() : "");
+            writer.write(',');
+            writer.write(String.valueOf(product.getActive()));
+            writer.write(',');
+            writer.write(csvValue(product.getName()));
+            writer.write(',');
+            writer.write(product.getPrice().toPlainString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Quotes a value containing separators, quotes or line breaks.
+     *
+     * @param value value
+     * @return CSV field
+     */
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,442 @@
+package com.fripop.product.ws.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fripop.product.ws.dto.DataFormat;
+import com.fripop.product.ws.dto.ProductBatchResultDto;
+import com.fripop.product.ws.dto.ProductCreateDto;
+import com.fripop.product.ws.dto.ProductImportResultDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.exception.BadRequestException;
+import com.fripop.product.ws.mapper.ProductMapper;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ProductImporter} is responsible for creating products from a newline delimited JSON or CSV stream.
+ * <p>
+ * Every line is validated by the same rules as {@link ProductCreateDto}. Valid products are collected into chunks of
+ * a bounded size and every chunk is inserted with the COPY protocol in its own transaction, so memory usage does not
+ * depend on the size of the stream. Chunks inserted before a failure stay committed. Lines and CSV records longer than
+ * the maximum length are rejected without being held in memory. A single {@link ProductEvent.Type#IMPORTED} event is
+ * published per chunk, so a large import does not flood the change feed.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductImporter {
+
+    /**
+     * Maximum number of rejected lines returned in the import result.
+     */
+    public static final int MAX_REPORTED_LINES = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ObjectReader productCreateReader;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int chunkSize;
+    private final int maxLineLength;
+
+    public ProductImporter(ProductRepository productRepository, ProductMapper productMapper, Validator validator,
+                           ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher applicationEventPublisher,
+                           @Value("${product.import.chunk-size:5000}") int chunkSize,
+                           @Value("${product.import.max-line-length:65536}") int maxLineLength) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.validator = validator;
+        this.productCreateReader = objectMapper.readerFor(ProductCreateDto.class);
+        this.transactionTemplate = transactionTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Creates products from the input stream.
+     * <p>
+     * With {@link DataFormat#CSV} the first line must be a header containing at least {@code name} and {@code price}
+     * columns; {@code code} and {@code active} columns are optional and other columns are ignored. Products with a
+     * code that already exists are rejected. Lines and CSV records longer than the maximum length are rejected.
+     *
+     * @param dataFormat  {@link DataFormat} of the input stream
+     * @param inputStream {@link InputStream} with UTF-8 encoded products
+     * @return {@link ProductImportResultDto}
+     * @throws IOException         when reading fails
+     * @throws BadRequestException when CSV header is not valid or too long
+     */
+    public ProductImportResultDto importProducts(DataFormat dataFormat, InputStream inputStream) throws IOException, BadRequestException {
+        var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        var importRun = new ImportRun();
+
+        if (dataFormat == DataFormat.CSV) {
+            readCsv(reader, importRun);
+        } else {
+            readNdjson(reader, importRun);
+        }
+        importRun.flush();
+
+        return importRun.result;
+    }
+
+    private void readNdjson(Reader reader, ImportRun importRun) throws IOException {
+        var lineReader = new LineReader(reader, maxLineLength);
+        var lineNumber = 0;
+        String line;
+        while ((line = lineReader.next()) != null) {
+            lineNumber++;
+            if (lineReader.isTooLong()) {
+                importRun.reject(lineNumber, "Line must not be longer than " + maxLineLength + " characters.");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            ProductCreateDto productCreate;
+            try {
+                productCreate = productCreateReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                importRun.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            importRun.accept(lineNumber, productCreate);
+        }
+    }
+
+    private void readCsv(Reader reader, ImportRun importRun) throws IOException, BadRequestException {
+        var csvReader = new CsvReader(reader, maxLineLength);
+        var header = csvReader.next();
+        if (header == null) {
+            return;
+        }
+        if (csvReader.isTooLong()) {
+            throw new BadRequestException("CSV header must not be longer than " + maxLineLength + " characters");
+        }
+
+        // Find the columns by name.
+        Map<String, Integer> columns = IntStream.range(0, header.size()).boxed()
+                .collect(Collectors.toMap(index -> header.get(index).trim().toLowerCase(), Function.identity(), (first, second) -> first));
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new BadRequestException("CSV header must contain name and price columns");
+        }
+
+        List<String> values;
+        while ((values = csvReader.next()) != null) {
+            var lineNumber = csvReader.getRecordLine();
+            if (csvReader.isTooLong()) {
+                importRun.reject(lineNumber, "CSV record must not be longer than " + maxLineLength + " characters.");
+                continue;
+            }
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+
+            var productCreate = new ProductCreateDto();
+            productCreate.setCode(value(values, columns.get("code")));
+            productCreate.setName(value(values, columns.get("name")));
+
+            var active = value(values, columns.get("active"));
+            if (active != null && !"true".equalsIgnoreCase(active) && !"false".equalsIgnoreCase(active)) {
+                importRun.reject(lineNumber, "Product active flag must be true or false.");
+                continue;
+            }
+            if (active != null) {
+                productCreate.setActive(Boolean.parseBoolean(active));
+            }
+
+            var price = value(values, columns.get("price"));
+            try {
+                productCreate.setPrice(price != null ? new BigDecimal(price) : null);
+            } catch (NumberFormatException e) {
+                importRun.reject(lineNumber, "Product price must be a number.");
+                continue;
+            }
+
+            importRun.accept(lineNumber, productCreate);
+        }
+    }
+
+    /**
+     * Returns the value of a CSV column.
+     *
+     * @param values record values
+     * @param column optional column index
+     * @return trimmed value, or {@code null} when column does not exist or is empty
+     */
+    private static String value(List<String> values, Integer column) {
+        if (column == null || column >= values.size() || values.get(column).isBlank()) {
+            return null;
+        }
+        return values.get(column).trim();
+    }
+
+    /**
+     * State of a single import.
+     */
+    private class ImportRun {
+
+        private final ProductImportResultDto result = new ProductImportResultDto(0L, 0L, new ArrayList<>());
+        private final List<Product> products = new ArrayList<>(chunkSize);
+        private final List<Integer> lineNumbers = new ArrayList<>(chunkSize);
+
+        /**
+         * Validates a parsed product and adds it to the current chunk.
+         *
+         * @param lineNumber    line number
+         * @param productCreate {@link ProductCreateDto}
+         */
+        void accept(int lineNumber, ProductCreateDto productCreate) {
+            if (productCreate == null) {
+                reject(lineNumber, "Product must be provided.");
+                return;
+            }
+            var violations = validator.validate(productCreate);
+            if (!violations.isEmpty()) {
+                reject(lineNumber, violations.stream().map(ConstraintViolation::getMessage).sorted().toList());
+                return;
+            }
+            if (productCreate.getActive() == null) {
+                reject(lineNumber, "Product active flag must be provided.");
+                return;
+            }
+
+            // Apply the same defaults as for persisted products, since entity callbacks are not executed.
+            var product = productMapper.productCreateToProduct(productCreate);
+            product.onCreate();
+
+            products.add(product);
+            lineNumbers.add(lineNumber);
+            if (products.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Inserts the current chunk in its own transaction.
+         */
+        void flush() {
+            if (products.isEmpty()) {
+                return;
+            }
+
+            var insertedIds = transactionTemplate.execute(status -> productRepository.copyAll(products));
+            for (var index = 0; index < products.size(); index++) {
+                if (insertedIds != null && insertedIds.contains(products.get(index).getId())) {
+                    result.setImported(result.getImported() + 1);
+                } else {
+                    reject(lineNumbers.get(index), "Product code already exists.");
+                }
+            }
+            if (insertedIds != null && !insertedIds.isEmpty()) {
+                applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.IMPORTED, Collections.max(insertedIds)));
+            }
+
+            products.clear();
+            lineNumbers.clear();
+        }
+
+        void reject(int lineNumber, String error) {
+            reject(lineNumber, List.of(error));
+        }
+
+        void reject(int lineNumber, List<String> errors) {
+            result.setRejected(result.getRejected() + 1);
+            if (result.getRejectedLines().size() < MAX_REPORTED_LINES) {
+                result.getRejectedLines().add(new ProductBatchResultDto(lineNumber, null, errors));
+            }
+        }
+    }
+
+    /**
+     * Reader of lines with a bounded length.
+     * <p>
+     * Characters of a line beyond the maximum length are skipped, so a single long line cannot exhaust the memory.
+     */
+    private static class LineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Reads the next line.
+         *
+         * @return line without the line terminator, or {@code null} at the end of the stream
+         * @throws IOException when reading fails
+         */
+        String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            var character = reader.read();
+            if (character < 0) {
+                return null;
+            }
+
+            while (character >= 0 && character != '\n') {
+                if (line.length() < maxLength) {
+                    line.append((char) character);
+                } else if (character != '\r') {
+                    tooLong = true;
+                }
+                character = reader.read();
+            }
+
+            // Strip the carriage return of a CRLF line terminator.
+            if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            return tooLong ? "" : line.toString();
+        }
+
+        /**
+         * Checks whether the last read line was longer than the maximum length.
+         *
+         * @return {@code true} when the line was too long and its content was skipped
+         */
+        boolean isTooLong() {
+            return tooLong;
+        }
+    }
+
+    /**
+     * Minimal reader of RFC 4180 CSV records supporting quoted values with separators, quotes and line breaks.
+     * <p>
+     * Characters of a record beyond the maximum length are skipped, so a single long record or an unterminated quoted
+     * value cannot exhaust the memory.
+     */
+    private static class CsvReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private int line = 1;
+        private int recordLine;
+        private int next = -2;
+        private int length;
+
+        CsvReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return record values, no values when the record is too long, or {@code null} at the end of the stream
+         * @throws IOException when reading fails
+         */
+        List<String> next() throws IOException {
+            recordLine = line;
+            length = 0;
+            var character = read();
+            if (character < 0) {
+                return null;
+            }
+
+            var values = new ArrayList<String>();
+            var value = new StringBuilder();
+            var quoted = false;
+            while (character >= 0) {
+                if (character == '\n' && !quoted) {
+                    break;
+                }
+                if (length > maxLength || ++length > maxLength) {
+
+                    // Skip the rest of the record, tracking only the quotes to find its end.
+                    if (character == '"') {
+                        quoted = !quoted;
+                    }
+                } else if (quoted) {
+                    if (character == '"') {
+                        if (peek() == '"') {
+                            value.append('"');
+                            read();
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        value.append((char) character);
+                    }
+                } else if (character == '"') {
+                    quoted = true;
+                } else if (character == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (character != '\r') {
+                    value.append((char) character);
+                }
+                character = read();
+            }
+            if (isTooLong()) {
+                return List.of();
+            }
+            values.add(value.toString());
+            return values;
+        }
+
+        /**
+         * Checks whether the last read record was longer than the maximum length.
+         *
+         * @return {@code true} when the record was too long and its values were skipped
+         */
+        boolean isTooLong() {
+            return length > maxLength;
+        }
+
+        /**
+         * Returns the line number where the last read record started.
+         *
+         * @return line number
+         */
+        int getRecordLine() {
+            return recordLine;
+        }
+
+        private int read() throws IOException {
+            var character = next != -2 ? next : reader.read();
+            next = -2;
+            if (character == '\n') {
+                line++;
+            }
+            return character;
+        }
+
+        private int peek() throws IOException {
+            if (next == -2) {
+                next = reader.read();
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.fripop.product.ws.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fripop.product.ws.config.ReplicaRoutingDataSource;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.model.ProductVersion;
+import com.fripop.product.ws.util.ProductETag;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ProductJsonCache} is a read-through cache of serialized {@link ProductDto}s.
+ * <p>
+ * Products are cached as ready-to-send JSON bytes, so a cache hit skips the database, the mapper and the serializer.
+ * Entries are evicted by size and age and invalidated when the product is updated or deleted. Hit, miss and eviction
+ * metrics are published under the {@code product.json} cache name. Every entry carries the {@link ProductVersion} of the
+ * serialized state, so conditional requests can be validated from the cache alone. Products are always loaded from the
+ * primary database, since an entry loaded from a lagging replica would serve the old state to all clients until it
+ * expires.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductJsonCache {
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CachedProduct> products;
+
+    /**
+     * Number of invalidations used for detecting products that were changed while they were being loaded.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductJsonCache(ProductService productService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${product.cache.ttl:60s}") Duration ttl,
+                            @Value("${product.cache.maximum-size:10000}") long maximumSize) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.products = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product.json");
+    }
+
+    /**
+     * Returns the serialized product, loading it when it is not cached.
+     *
+     * @param id product id
+     * @return {@link CachedProduct}
+     * @throws NotFoundException when product does not exist
+     */
+    public CachedProduct get(long id) throws NotFoundException {
+        var cachedProduct = products.getIfPresent(id);
+        if (cachedProduct != null) {
+            return cachedProduct;
+        }
+
+        var invalidationsBefore = invalidations.get();
+        var primaryRequired = ReplicaRoutingDataSource.isPrimaryRequired();
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        ProductDto product;
+        try {
+            product = productService.findRequired(id);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(primaryRequired);
+        }
+        cachedProduct = new CachedProduct(serialize(product), ProductETag.version(product));
+
+        // Skip caching if any product was invalidated during loading, since the loaded state may already be stale.
+        if (invalidations.get() == invalidationsBefore) {
+            products.put(id, cachedProduct);
+        }
+        return cachedProduct;
+    }
+
+    /**
+     * Returns the serialized product if it is cached.
+     *
+     * @param id product id
+     * @return {@link CachedProduct} or {@code null} when product is not cached
+     */
+    public CachedProduct getIfPresent(long id) {
+        return products.getIfPresent(id);
+    }
+
+    /**
+     * Invalidates the cached product after the change is committed, or immediately when the change was made outside
+     * of a transaction, like by the {@link ProductReactiveService}.
+     *
+     * @param productEvent {@link ProductEvent}
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEvent productEvent) {
+
+        // Created and imported products cannot be cached yet.
+        if (productEvent.getType() == ProductEvent.Type.CREATED || productEvent.getType() == ProductEvent.Type.IMPORTED) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        products.invalidate(productEvent.getId());
+    }
+
+    private byte[] serialize(ProductDto product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize product with id " + product.getId(), e);
+        }
+    }
+
+    /**
+     * Serialized product together with the version of its serialized state.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedProduct {
+
+        /**
+         * {@link ProductDto} serialized as JSON.
+         */
+        private final byte[] json;
+
+        /**
+         * {@link ProductVersion} of the serialized state.
+         */
+        private final ProductVersion version;
+    }
+}
@@ -0,0 +1,166 @@
+package com.fripop.product.ws.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * {@link ProductQueryMetrics} records the duration of product database queries.
+ * <p>
+ * Durations are published as the {@value #QUERY_TIMER} timer tagged with the {@link Query} type, the shape of the
+ * filter and the bucketed page size. Tags carry only which filters are present and a page size range, never the
+ * values, so the number of time series stays bounded.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductQueryMetrics {
+
+    /**
+     * Name of the product query timer.
+     */
+    public static final String QUERY_TIMER = "product.query";
+
+    /**
+     * Tag value used when a request has no filter or page size.
+     */
+    public static final String NONE = "none";
+
+    private static final int[] PAGE_SIZE_BUCKETS = {10, 20, 50, 100};
+
+    private final MeterRegistry meterRegistry;
+
+    public ProductQueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the duration of a query without filters.
+     *
+     * @param query    {@link Query} type
+     * @param supplier executes the query
+     * @param <T>      result type
+     * @return query result
+     */
+    public <T> T record(Query query, Supplier<T> supplier) {
+        return timer(query, NONE, NONE).record(supplier);
+    }
+
+    /**
+     * Records the duration of a filtered query.
+     *
+     * @param query      {@link Query} type
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param pageable   optional {@link Pageable} with the page size
+     * @param supplier   executes the query
+     * @param <T>        result type
+     * @return query result
+     */
+    public <T> T record(Query query, String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active,
+                        Pageable pageable, Supplier<T> supplier) {
+        var pageSize = pageable == null ? NONE : pageable.isPaged() ? pageSizeTag(pageable.getPageSize()) : "unpaged";
+        return timer(query, filterTag(name != null, priceStart != null || priceEnd != null, active != null), pageSize)
+                .record(supplier);
+    }
+
+    /**
+     * Returns the tag describing which filters are present, for example {@code name+active}.
+     *
+     * @param name   whether products are filtered by name
+     * @param price  whether products are filtered by price
+     * @param active whether products are filtered by the active flag
+     * @return filter tag value
+     */
+    public static String filterTag(boolean name, boolean price, boolean active) {
+        if (!name && !price && !active) {
+            return NONE;
+        }
+
+        var filter = new StringBuilder();
+        if (name) {
+            filter.append("name");
+        }
+        if (price) {
+            filter.append(filter.isEmpty() ? "" : "+").append("price");
+        }
+        if (active) {
+            filter.append(filter.isEmpty() ? "" : "+").append("active");
+        }
+        return filter.toString();
+    }
+
+    /**
+     * Returns the tag with the range of a page size, for example {@code 21-50}.
+     *
+     * @param pageSize page size
+     * @return page size tag value
+     */
+    public static String pageSizeTag(int pageSize) {
+        var lowerBound = 1;
+        for (var upperBound : PAGE_SIZE_BUCKETS) {
+            if (pageSize <= upperBound) {
+                return lowerBound + "-" + upperBound;
+            }
+            lowerBound = upperBound + 1;
+        }
+        return lowerBound + "+";
+    }
+
+    private Timer timer(Query query, String filter, String pageSize) {
+        return Timer.builder(QUERY_TIMER)
+                .description("Duration of product database queries")
+                .tag("query", query.tag)
+                .tag("filter", filter)
+                .tag("page.size", pageSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Types of product queries.
+     */
+    public enum Query {
+
+        /**
+         * Reads a single product by id.
+         */
+        FIND_BY_ID("find-by-id"),
+
+        /**
+         * Reads a page of filtered products.
+         */
+        FIND_ALL("find-all"),
+
+        /**
+         * Reads products by a chunk of ids or codes.
+         */
+        LOOKUP("lookup"),
+
+        /**
+         * Counts filtered products.
+         */
+        COUNT("count"),
+
+        /**
+         * Inserts or updates products.
+         */
+        SAVE("save"),
+
+        /**
+         * Deletes a product.
+         */
+        DELETE("delete");
+
+        private final String tag;
+
+        Query(String tag) {
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fripop.product.ws.service;
+
+import com.fripop.product.ws.dto.ProductCreateDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.mapper.ProductMapper;
+import com.fripop.product.ws.repository.ProductReactiveRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * {@link ProductReactiveService} is the non-blocking counterpart of {@link ProductService}.
+ * <p>
+ * Every operation is a single statement executed through the {@link ProductReactiveRepository}, so no transaction is
+ * required. Product changes are published as {@link ProductEvent}s once the statement completed.
+ *
+ * @since 1.0.0
+ */
+@Service
+@AllArgsConstructor
+public class ProductReactiveService {
+
+    private final ProductReactiveRepository productReactiveRepository;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Creates a new product.
+     *
+     * @param productCreate {@link ProductCreateDto} with creation information
+     * @return {@link Mono} with created {@link ProductDto}
+     */
+    public Mono<ProductDto> create(ProductCreateDto productCreate) {
+
+        // Apply the same defaults as for persisted products, since entity callbacks are not executed.
+        var product = productMapper.productCreateToProduct(productCreate);
+        product.onCreate();
+
+        return productReactiveRepository.insert(product)
+                .doOnNext(insertedProduct -> applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.CREATED, insertedProduct.getId())))
+                .map(productMapper::productToProductDto);
+    }
+
+    /**
+     * Updates an existing product.
+     *
+     * @param id            product id
+     * @param productUpdate {@link ProductUpdateDto} with update information
+     * @return {@link Mono} completing when product is updated or failing with {@link NotFoundException} when product
+     * does not exist
+     */
+    public Mono<Void> update(long id, ProductUpdateDto productUpdate) {
+        return productReactiveRepository.updateById(id, productUpdate.getActive(), productUpdate.getName(),
+                        productUpdate.getPrice(), new Timestamp(System.currentTimeMillis()))
+                .flatMap(updatedProducts -> changed(id, updatedProducts, ProductEvent.Type.UPDATED));
+    }
+
+    /**
+     * Finds product by id.
+     *
+     * @param id product id
+     * @return {@link Mono} with existing {@link ProductDto} or failing with {@link NotFoundException} when product does
+     * not exist
+     */
+    public Mono<ProductDto> findRequired(long id) {
+        return productReactiveRepository.findById(id)
+                .map(productMapper::productToProductDto)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Cannot find Product with id " + id)));
+    }
+
+    /**
+     * Finds all products by parameters ordered by id.
+     * <p>
+     * Products are read from the database as the subscriber requests them.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @return {@link Flux} of {@link ProductDto}s
+     */
+    public Flux<ProductDto> findAll(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active) {
+        return productReactiveRepository.findAll(name, priceStart, priceEnd, active).map(productMapper::productToProductDto);
+    }
+
+    /**
+     * Deletes a product by id.
+     *
+     * @param id product id
+     * @return {@link Mono} completing when product is deleted or failing with {@link NotFoundException} when product
+     * does not exist
+     */
+    public Mono<Void> delete(long id) {
+        return productReactiveRepository.deleteById(id, new Timestamp(System.currentTimeMillis()))
+                .flatMap(deletedProducts -> changed(id, deletedProducts, ProductEvent.Type.DELETED));
+    }
+
+    private Mono<Void> changed(long id, long changedProducts, ProductEvent.Type type) {
+        if (changedProducts == 0) {
+            return Mono.error(new NotFoundException("Cannot find Product with id " + id));
+        }
+        return Mono.fromRunnable(() -> applicationEventPublisher.publishEvent(new ProductEvent(type, id)));
+    }
+}
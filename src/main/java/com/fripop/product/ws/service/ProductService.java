@@ -1,24 +1,46 @@
 package com.fripop.product.ws.service;
 
+import com.fripop.product.ws.dto.CountMode;
 import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductBatchResultDto;
 import com.fripop.product.ws.dto.ProductCreateDto;
 import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.dto.ProductLookupResultDto;
+import com.fripop.product.ws.dto.ProductPatchDto;
 import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.exception.BadRequestException;
 import com.fripop.product.ws.exception.NotFoundException;
 import com.fripop.product.ws.mapper.ProductMapper;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.model.ProductVersion;
 import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.service.ProductQueryMetrics.Query;
+import com.fripop.product.ws.util.ProductCursor;
+import com.fripop.product.ws.util.ProductETag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.stream.Collectors;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * {@link ProductService} is a service responsible for handling product related requests.
+ * <p>
+ * Database queries are timed by {@link ProductQueryMetrics}.
  *
  * @since 1.0.0
  */
@@ -30,6 +52,10 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ProductCountEstimator productCountEstimator;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ProductQueryMetrics productQueryMetrics;
 
     /**
      * Creates a new product.
@@ -39,10 +65,58 @@ public class ProductService {
      */
     public ProductDto create(ProductCreateDto productCreate) {
         var product = productMapper.productCreateToProduct(productCreate);
-        productRepository.save(product);
+        productQueryMetrics.record(Query.SAVE, () -> productRepository.save(product));
+        applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.CREATED, product.getId()));
         return productMapper.productToProductDto(product);
     }
 
+    /**
+     * Creates multiple new products.
+     * <p>
+     * Every item is validated separately. Valid items are inserted using JDBC batches while invalid items are
+     * rejected with their validation errors.
+     *
+     * @param productCreates {@link ProductCreateDto}s with creation information
+     * @return {@link ObjectsResponseDto} containing a {@link ProductBatchResultDto} for every item in the input order
+     */
+    public ObjectsResponseDto<ProductBatchResultDto> createAll(List<ProductCreateDto> productCreates) {
+        var results = new ArrayList<ProductBatchResultDto>(productCreates.size());
+        var acceptedResults = new ArrayList<ProductBatchResultDto>(productCreates.size());
+        var products = new ArrayList<Product>(productCreates.size());
+
+        for (var index = 0; index < productCreates.size(); index++) {
+            var productCreate = productCreates.get(index);
+            var result = new ProductBatchResultDto(index, null, null);
+            results.add(result);
+
+            // Reject the item if it is missing or invalid.
+            if (productCreate == null) {
+                result.setErrors(List.of("Product must be provided."));
+                continue;
+            }
+            var violations = validator.validate(productCreate);
+            if (!violations.isEmpty()) {
+                result.setErrors(violations.stream().map(ConstraintViolation::getMessage).sorted().toList());
+                continue;
+            }
+
+            acceptedResults.add(result);
+            products.add(productMapper.productCreateToProduct(productCreate));
+        }
+
+        // Ids are assigned from the sequence on persist, so they are known once all products are persisted.
+        productQueryMetrics.record(Query.SAVE, () -> {
+            productRepository.persistAll(products);
+            return null;
+        });
+        for (var index = 0; index < products.size(); index++) {
+            acceptedResults.get(index).setId(products.get(index).getId());
+            applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.CREATED, products.get(index).getId()));
+        }
+
+        return new ObjectsResponseDto<>((long) results.size(), results);
+    }
+
     /**
      * Updates an existing product.
      *
@@ -51,14 +125,59 @@ public class ProductService {
      * @throws NotFoundException when product does not exist
      */
     public void update(long id, ProductUpdateDto productUpdate) throws NotFoundException {
-        var existingProduct = productRepository.findRequiredById(id);
 
-        // Assign the new values.
-        existingProduct.setActive(productUpdate.getActive());
-        existingProduct.setName(productUpdate.getName());
-        existingProduct.setPrice(productUpdate.getPrice());
+        // Assign the new values with a single statement; no product is updated when it does not exist.
+        var updatedProducts = productQueryMetrics.record(Query.SAVE, () -> productRepository.updateById(id,
+                productUpdate.getActive(), productUpdate.getName(), productUpdate.getPrice(), new Timestamp(System.currentTimeMillis())));
+        if (updatedProducts == 0) {
+            throw new NotFoundException("Cannot find Product with id " + id);
+        }
+
+        applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.UPDATED, id));
+    }
+
+    /**
+     * Creates a product with the code or updates the existing one.
+     * <p>
+     * The existing product is updated without reading it first and a new product is inserted only when no product
+     * has the code.
+     *
+     * @param code          product code
+     * @param productUpdate {@link ProductUpdateDto} with product values
+     * @return created or updated {@link ProductDto}; the update timestamp is empty when the product was created
+     */
+    public ProductDto upsertByCode(String code, ProductUpdateDto productUpdate) {
+        var product = productQueryMetrics.record(Query.SAVE, () -> productRepository.upsertByCode(code,
+                productUpdate.getActive(), productUpdate.getName(), productUpdate.getPrice(), new Timestamp(System.currentTimeMillis())));
+
+        var type = product.getUpdated() == null ? ProductEvent.Type.CREATED : ProductEvent.Type.UPDATED;
+        applicationEventPublisher.publishEvent(new ProductEvent(type, product.getId()));
+        return product;
+    }
+
+    /**
+     * Partially updates an existing product.
+     * <p>
+     * Only the provided values are written. When they all match the stored values, the product is not written and
+     * its update timestamp stays the same.
+     *
+     * @param id           product id
+     * @param productPatch {@link ProductPatchDto} with values to change
+     * @throws NotFoundException when product does not exist
+     */
+    public void patch(long id, ProductPatchDto productPatch) throws NotFoundException {
+
+        // Write only changed columns; no product is updated when it does not exist or nothing changed.
+        var updatedProducts = productQueryMetrics.record(Query.SAVE, () -> productRepository.patchById(id,
+                productPatch.getActive(), productPatch.getName(), productPatch.getPrice(), new Timestamp(System.currentTimeMillis())));
+        if (updatedProducts == 0) {
+            if (!productQueryMetrics.record(Query.FIND_BY_ID, () -> productRepository.existsById(id))) {
+                throw new NotFoundException("Cannot find Product with id " + id);
+            }
+            return;
+        }
 
-        productRepository.save(existingProduct);
+        applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.UPDATED, id));
     }
 
     /**
@@ -70,30 +189,238 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public ProductDto findRequired(long id) throws NotFoundException {
-        return productMapper.productToProductDto(productRepository.findRequiredById(id));
+        return productQueryMetrics.record(Query.FIND_BY_ID, () -> productRepository.findDtoById(id)).orElseThrow(() -> new NotFoundException("Cannot find Product with id " + id));
+    }
+
+    /**
+     * Finds product by id with only the requested fields.
+     * <p>
+     * Only the columns of the requested fields, the id and the change timestamps of the product are read.
+     *
+     * @param id     product id
+     * @param fields requested fields
+     * @return existing {@link ProductDto} with only the requested fields, id and change timestamps
+     * @throws NotFoundException when product does not exist
+     */
+    @Transactional(readOnly = true)
+    public ProductDto findRequired(long id, Set<String> fields) throws NotFoundException {
+        return productQueryMetrics.record(Query.FIND_BY_ID, () -> productRepository.findDtoById(id, properties(fields)))
+                .orElseThrow(() -> new NotFoundException("Cannot find Product with id " + id));
+    }
+
+    /**
+     * Finds multiple products by ids and codes.
+     * <p>
+     * Every distinct key is read once, with one query per chunk of {@link ProductRepository#IN_CHUNK_SIZE} keys.
+     *
+     * @param ids   optional product ids
+     * @param codes optional product codes
+     * @return {@link ObjectsResponseDto} containing a {@link ProductLookupResultDto} for every id followed by every code,
+     * in the request order
+     */
+    @Transactional(readOnly = true)
+    public ObjectsResponseDto<ProductLookupResultDto> lookup(List<Long> ids, List<String> codes) {
+        var requestedIds = ids != null ? ids : List.<Long>of();
+        var requestedCodes = codes != null ? codes : List.<String>of();
+
+        // Read the products of all distinct keys.
+        var productsById = new HashMap<Long, ProductDto>();
+        var productsByCode = new HashMap<String, ProductDto>();
+        if (!requestedIds.isEmpty()) {
+            productQueryMetrics.record(Query.LOOKUP, () -> productRepository.findDtosByIds(new LinkedHashSet<>(requestedIds)))
+                    .forEach(product -> productsById.put(product.getId(), product));
+        }
+        if (!requestedCodes.isEmpty()) {
+            productQueryMetrics.record(Query.LOOKUP, () -> productRepository.findDtosByCodes(new LinkedHashSet<>(requestedCodes)))
+                    .forEach(product -> productsByCode.put(product.getCode(), product));
+        }
+
+        var results = new ArrayList<ProductLookupResultDto>(requestedIds.size() + requestedCodes.size());
+        for (var id : requestedIds) {
+            var product = productsById.get(id);
+            results.add(new ProductLookupResultDto(id, null, product != null, product));
+        }
+        for (var code : requestedCodes) {
+            var product = productsByCode.get(code);
+            results.add(new ProductLookupResultDto(null, code, product != null, product));
+        }
+
+        return new ObjectsResponseDto<>((long) results.size(), results);
+    }
+
+    /**
+     * Finds product by code.
+     *
+     * @param code product code
+     * @return existing {@link ProductDto}
+     * @throws NotFoundException when product does not exist
+     */
+    @Transactional(readOnly = true)
+    public ProductDto findRequiredByCode(String code) throws NotFoundException {
+        return productQueryMetrics.record(Query.FIND_BY_ID, () -> productRepository.findDtoByCode(code)).orElseThrow(() -> new NotFoundException("Cannot find Product with code " + code));
+    }
+
+    /**
+     * Finds the version of a product by id without loading the product.
+     *
+     * @param id product id
+     * @return {@link ProductVersion}
+     * @throws NotFoundException when product does not exist
+     */
+    @Transactional(readOnly = true)
+    public ProductVersion findRequiredVersion(long id) throws NotFoundException {
+        return productQueryMetrics.record(Query.FIND_BY_ID, () -> productRepository.findVersionById(id)).orElseThrow(() -> new NotFoundException("Cannot find Product with id " + id));
     }
 
     /**
      * Finds all products by parameters.
+     * <p>
+     * The total number of products is counted according to the {@link CountMode}. With {@link CountMode#NONE} only
+     * the flag indicating whether there is a next page is returned. Products can be sorted by
+     * {@link ProductRepository#RELEVANCE} to list the best name matches first.
      *
      * @param name       optional part or full name of a product
      * @param priceStart optional product price start
      * @param priceEnd   optional product price end
      * @param active     optional flag for including active/inactive products
+     * @param countMode  {@link CountMode} of the total number of products
+     * @param fields     optional requested fields; all fields are read when not provided
      * @param pageable   {@link Pageable} with pagination information
      * @return {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s
+     * @throws BadRequestException when sorting by a property that is not supported
      */
     @Transactional(readOnly = true)
-    public ObjectsResponseDto<ProductDto> findAll(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, Pageable pageable) {
-        var productsPage = productRepository.findAll(name, priceStart, priceEnd, active, pageable);
+    public ObjectsResponseDto<ProductDto> findAll(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active,
+                                                  CountMode countMode, Set<String> fields, Pageable pageable)
+            throws BadRequestException {
+        validateOffsetSort(pageable.getSort());
 
-        // Get the total number of elements.
-        var totalElements = productsPage.getTotalElements();
+        // Read the products on the current page.
+        var productsSlice = productQueryMetrics.record(Query.FIND_ALL, name, priceStart, priceEnd, active, pageable,
+                () -> productRepository.findDtoSlice(name, priceStart, priceEnd, active, pageable, properties(fields)));
+        var products = productsSlice.getContent();
 
-        // Get the products on the current page.
-        var products = productsPage.getContent().stream().map(productMapper::productToProductDto).collect(Collectors.toList());
+        if (countMode == CountMode.EXACT) {
 
-        return new ObjectsResponseDto<>(totalElements, products);
+            // Count all products only when the total number cannot be derived from the current page.
+            var offset = pageable.isPaged() ? pageable.getOffset() : 0;
+            var totalElements = !productsSlice.hasNext() && (productsSlice.hasContent() || offset == 0)
+                    ? offset + products.size()
+                    : productQueryMetrics.record(Query.COUNT, name, priceStart, priceEnd, active, null,
+                    () -> productRepository.count(name, priceStart, priceEnd, active));
+
+            return new ObjectsResponseDto<>(totalElements, products, null, productsSlice.hasNext());
+        }
+
+        Long totalElements = null;
+        if (countMode == CountMode.ESTIMATED) {
+
+            // The estimate can never be lower than the number of products that were actually read.
+            var readElements = (pageable.isPaged() ? pageable.getOffset() : 0) + products.size();
+            totalElements = Math.max(productCountEstimator.estimate(name, priceStart, priceEnd, active), readElements);
+        }
+
+        return new ObjectsResponseDto<>(totalElements, products, null, productsSlice.hasNext());
+    }
+
+    /**
+     * Computes the entity tag of the products that would be returned by
+     * {@link #findAll(String, BigDecimal, BigDecimal, Boolean, CountMode, Set, Pageable)}.
+     * <p>
+     * Only ids and change timestamps of the products are read, so a conditional request of an unchanged page does not
+     * load, map and serialize the products.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param countMode  {@link CountMode} of the total number of products
+     * @param pageable   {@link Pageable} with pagination information
+     * @return quoted entity tag
+     * @throws BadRequestException when sorting by a property that is not supported
+     */
+    @Transactional(readOnly = true)
+    public String findAllETag(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active,
+                              CountMode countMode, Pageable pageable)
+            throws BadRequestException {
+        validateOffsetSort(pageable.getSort());
+
+        var versionsSlice = productQueryMetrics.record(Query.FIND_ALL, name, priceStart, priceEnd, active, pageable,
+                () -> productRepository.findVersionSlice(name, priceStart, priceEnd, active, pageable));
+        var offset = pageable.isPaged() ? pageable.getOffset() : 0;
+
+        Long totalElements = null;
+        var hasNext = versionsSlice.hasNext();
+        if (countMode == CountMode.EXACT) {
+            totalElements = productQueryMetrics.record(Query.COUNT, name, priceStart, priceEnd, active, null,
+                    () -> productRepository.count(name, priceStart, priceEnd, active));
+            hasNext = pageable.isPaged() && offset + pageable.getPageSize() < totalElements;
+        } else if (countMode == CountMode.ESTIMATED) {
+            var readElements = offset + versionsSlice.getNumberOfElements();
+            totalElements = Math.max(productCountEstimator.estimate(name, priceStart, priceEnd, active), readElements);
+        }
+
+        return ProductETag.of(versionsSlice.getContent(), totalElements, hasNext);
+    }
+
+    /**
+     * Finds all products by parameters using keyset pagination.
+     * <p>
+     * The first page is read when cursor is not provided. The returned {@link ObjectsResponseDto} contains the cursor
+     * of the next page if there are more products, but not the total number of products.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param cursor     optional cursor of the next page returned with the previous page
+     * @param fields     optional requested fields; all fields are read when not provided
+     * @param pageable   {@link Pageable} with page size and sort of the first page
+     * @return {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s and the next page cursor
+     * @throws BadRequestException when cursor is not valid or sorting is not supported
+     */
+    @Transactional(readOnly = true)
+    public ObjectsResponseDto<ProductDto> findAllAfter(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, String cursor,
+                                                       Set<String> fields, Pageable pageable)
+            throws BadRequestException {
+
+        var productCursor = cursor != null ? ProductCursor.decode(cursor) : null;
+        var sort = keysetSort(productCursor, pageable);
+
+        // Read one additional product to find out whether there is a next page; the cursor needs the sort property.
+        var properties = properties(fields, sort.iterator().next().getProperty());
+        var productsSlice = productQueryMetrics.record(Query.FIND_ALL, name, priceStart, priceEnd, active, pageable,
+                () -> productRepository.findDtosAfter(name, priceStart, priceEnd, active, productCursor, sort, pageable.getPageSize(), properties));
+        var products = productsSlice.getContent();
+        var next = productsSlice.hasNext() ? ProductCursor.of(products.get(products.size() - 1), sort.iterator().next()).encode() : null;
+
+        return new ObjectsResponseDto<>(null, products, next, productsSlice.hasNext());
+    }
+
+    /**
+     * Computes the entity tag of the products that would be returned by
+     * {@link #findAllAfter(String, BigDecimal, BigDecimal, Boolean, String, Set, Pageable)}.
+     * <p>
+     * Only ids and change timestamps of the products are read.
+     *
+     * @param name       optional part or full name of a product
+     * @param priceStart optional product price start
+     * @param priceEnd   optional product price end
+     * @param active     optional flag for including active/inactive products
+     * @param cursor     optional cursor of the next page returned with the previous page
+     * @param pageable   {@link Pageable} with page size and sort of the first page
+     * @return quoted entity tag
+     * @throws BadRequestException when cursor is not valid or sorting is not supported
+     */
+    @Transactional(readOnly = true)
+    public String findAllAfterETag(String name, BigDecimal priceStart, BigDecimal priceEnd, Boolean active, String cursor, Pageable pageable)
+            throws BadRequestException {
+        var productCursor = cursor != null ? ProductCursor.decode(cursor) : null;
+        var sort = keysetSort(productCursor, pageable);
+
+        var versionsSlice = productQueryMetrics.record(Query.FIND_ALL, name, priceStart, priceEnd, active, pageable,
+                () -> productRepository.findVersionsAfter(name, priceStart, priceEnd, active, productCursor, sort, pageable.getPageSize()));
+        return ProductETag.of(versionsSlice.getContent(), null, versionsSlice.hasNext());
     }
 
     /**
@@ -103,7 +430,95 @@ public class ProductService {
      * @throws NotFoundException when product does not exist
      */
     public void delete(long id) throws NotFoundException {
-        var existingProduct = productRepository.findRequiredById(id);
-        productRepository.delete(existingProduct);
+
+        // Delete and leave a tombstone with a single statement; no product is deleted when it does not exist.
+        if (productQueryMetrics.record(Query.DELETE, () -> productRepository.deleteProductById(id, new Timestamp(System.currentTimeMillis()))) == 0) {
+            throw new NotFoundException("Cannot find Product with id " + id);
+        }
+        applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.DELETED, id));
+    }
+
+    /**
+     * Validates that products are sorted only by indexed properties.
+     *
+     * @param sort requested {@link Sort}
+     * @throws BadRequestException when sorting by a property that is not supported
+     */
+    private void validateSort(Sort sort) throws BadRequestException {
+        for (var order : sort) {
+            if (!ProductCursor.SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BadRequestException("Sorting by " + order.getProperty() + " is not supported");
+            }
+        }
+    }
+
+    /**
+     * Validates that products are sorted only by indexed properties or only by name search relevance.
+     *
+     * @param sort requested {@link Sort}
+     * @throws BadRequestException when sorting by a property that is not supported
+     */
+    private void validateOffsetSort(Sort sort) throws BadRequestException {
+        if (sort.getOrderFor(ProductRepository.RELEVANCE) != null) {
+            if (sort.toList().size() > 1) {
+                throw new BadRequestException("Sorting by relevance cannot be combined with other properties");
+            }
+            return;
+        }
+        validateSort(sort);
+    }
+
+    /**
+     * Returns the {@link Sort} of keyset pagination; continues in the order of the cursor or starts in the requested
+     * order.
+     *
+     * @param productCursor optional {@link ProductCursor}
+     * @param pageable      {@link Pageable} with sort of the first page
+     * @return {@link Sort} by a single property and id
+     * @throws BadRequestException when sorting by multiple or unsupported properties or cursor is not a keyset cursor
+     */
+    private Sort keysetSort(ProductCursor productCursor, Pageable pageable) throws BadRequestException {
+        if (productCursor != null) {
+            if (!ProductCursor.SORT_PROPERTIES.contains(productCursor.getProperty())) {
+                throw new BadRequestException("Invalid cursor " + productCursor.encode());
+            }
+            return productCursor.toSort();
+        }
+        return ProductCursor.sort(singleSortOrder(pageable.getSort()));
+    }
+
+    /**
+     * Returns the single sort order used for keyset pagination; products are sorted by id when sort is not requested.
+     *
+     * @param sort requested {@link Sort}
+     * @return {@link Sort.Order}
+     * @throws BadRequestException when sorting by multiple or unsupported properties
+     */
+    private Sort.Order singleSortOrder(Sort sort) throws BadRequestException {
+        validateSort(sort);
+        var orders = sort.toList();
+        if (orders.size() > 1) {
+            throw new BadRequestException("Keyset pagination supports sorting by a single property");
+        }
+        return orders.isEmpty() ? Sort.Order.asc("id") : orders.get(0);
+    }
+
+    /**
+     * Returns the properties read for the requested fields; the id and change timestamps are always read for the entity
+     * tag, together with any other properties required by the caller.
+     *
+     * @param fields   optional requested fields
+     * @param required other required properties
+     * @return properties to read, or {@code null} when all properties are read
+     */
+    private static Set<String> properties(Set<String> fields, String... required) {
+        if (fields == null) {
+            return null;
+        }
+
+        var properties = new LinkedHashSet<>(fields);
+        properties.addAll(List.of("id", "created", "updated"));
+        properties.addAll(List.of(required));
+        return properties;
     }
 }
@@ -0,0 +1,272 @@
+package com.fripop.product.ws.service;
+
+import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.exception.ServiceUnavailableException;
+import com.fripop.product.ws.model.Product;
+import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.service.ProductQueryMetrics.Query;
+import com.fripop.product.ws.util.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ProductUpdateBuffer} accepts product updates and writes them to the database later.
+ * <p>
+ * Only the latest update of every product is kept, so a product updated many times between two flushes is written
+ * once. Pending updates are written with a single JDBC batch on the flush thread after the flush interval, as soon as
+ * the maximum number of pending products is reached, and when the application shuts down. While the buffer is full,
+ * updates of other products are rejected until the flush thread catches up. Writing is serialized, so an older update
+ * never overwrites a newer one. Updates of products that do not exist are rejected when they are submitted. Updates of
+ * products deleted meanwhile are dropped when they are written, and so are updates that cannot be written, without
+ * holding back the others. The buffer is created only when
+ * {@code product.update-buffer.enabled} is {@code true}.
+ *
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "product.update-buffer.enabled", havingValue = "true")
+public class ProductUpdateBuffer implements DisposableBean {
+
+    /**
+     * Prefix of the update buffer metric names.
+     */
+    public static final String METRIC_PREFIX = "product.update-buffer";
+
+    private final Logger logger = Logger.getLogger(ProductUpdateBuffer.class);
+    private final ProductRepository productRepository;
+    private final ProductQueryMetrics productQueryMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int maximumSize;
+    private final Map<Long, Product> pendingUpdates = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ScheduledExecutorService flushExecutor;
+    private final Counter acceptedUpdates;
+    private final Counter coalescedUpdates;
+    private final Counter writtenUpdates;
+    private final Counter droppedUpdates;
+    private final Counter failedUpdates;
+    private final Counter rejectedUpdates;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public ProductUpdateBuffer(ProductRepository productRepository, ProductQueryMetrics productQueryMetrics,
+                               TransactionTemplate transactionTemplate, ApplicationEventPublisher applicationEventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${product.update-buffer.flush-interval:100ms}") Duration flushInterval,
+                               @Value("${product.update-buffer.maximum-size:10000}") int maximumSize) {
+        this.productRepository = productRepository;
+        this.productQueryMetrics = productQueryMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.maximumSize = maximumSize;
+        this.acceptedUpdates = meterRegistry.counter(METRIC_PREFIX + ".accepted");
+        this.coalescedUpdates = meterRegistry.counter(METRIC_PREFIX + ".coalesced");
+        this.writtenUpdates = meterRegistry.counter(METRIC_PREFIX + ".written");
+        this.droppedUpdates = meterRegistry.counter(METRIC_PREFIX + ".dropped");
+        this.failedUpdates = meterRegistry.counter(METRIC_PREFIX + ".failed");
+        this.rejectedUpdates = meterRegistry.counter(METRIC_PREFIX + ".rejected");
+        Gauge.builder(METRIC_PREFIX + ".pending", pendingUpdates, Map::size).register(meterRegistry);
+
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "product-update-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var flushIntervalMillis = flushInterval.toMillis();
+        this.flushExecutor.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Accepts an update of a product, replacing its pending update.
+     * <p>
+     * When the maximum number of pending products is reached, the flush thread writes the pending updates right away.
+     * Until then, an update of a product without a pending update is rejected, so memory usage stays bounded and the
+     * caller never waits for other updates to be written. The existence of a product without a pending update is checked
+     * on the primary database by its id.
+     *
+     * @param id            product id
+     * @param productUpdate {@link ProductUpdateDto} with update information
+     * @throws NotFoundException           when product does not exist
+     * @throws ServiceUnavailableException when the buffer is full
+     */
+    public void submit(long id, ProductUpdateDto productUpdate) throws NotFoundException, ServiceUnavailableException {
+        var product = new Product();
+        product.setId(id);
+        product.setActive(productUpdate.getActive());
+        product.setName(productUpdate.getName());
+        product.setPrice(productUpdate.getPrice());
+        product.setUpdated(new Timestamp(System.currentTimeMillis()));
+
+        // Replacing a pending update does not grow the buffer.
+        if (pendingUpdates.size() >= maximumSize && !pendingUpdates.containsKey(id)) {
+            rejectedUpdates.increment();
+            requestFlush();
+            throw new ServiceUnavailableException("Too many pending product updates, retry later");
+        }
+
+        // A product with a pending update was checked when that update was accepted.
+        if (!pendingUpdates.containsKey(id) && !productQueryMetrics.record(Query.FIND_BY_ID,
+                () -> transactionTemplate.execute(status -> productRepository.existsById(id)))) {
+            throw new NotFoundException("Cannot find Product with id " + id);
+        }
+
+        acceptedUpdates.increment();
+        if (pendingUpdates.put(id, product) != null) {
+            coalescedUpdates.increment();
+        } else if (pendingUpdates.size() >= maximumSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Writes the pending update of a product, so that a following change of the product is not overwritten by it.
+     *
+     * @param id product id
+     */
+    public void flush(long id) {
+        writeLock.lock();
+        try {
+            var product = pendingUpdates.remove(id);
+            if (product != null) {
+                write(List.of(product));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending update of a product with the code, so that a following change of the product is not
+     * overwritten by it.
+     * <p>
+     * The code is resolved to the product id only when some updates are pending.
+     *
+     * @param code product code
+     */
+    public void flush(String code) {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+        productQueryMetrics.record(Query.FIND_BY_ID, () -> productRepository.findIdByCode(code)).ifPresent(this::flush);
+    }
+
+    /**
+     * Writes all pending updates.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            var products = new ArrayList<Product>(pendingUpdates.size());
+            for (var id : pendingUpdates.keySet()) {
+                var product = pendingUpdates.remove(id);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            write(products);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Write updates accepted since the last flush.
+        flush();
+    }
+
+    /**
+     * Writes all pending updates on the flush thread.
+     * <p>
+     * Failures are logged instead of thrown, since a thrown exception would cancel further flushes.
+     */
+    private void scheduledFlush() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.log(e);
+        }
+    }
+
+    /**
+     * Asks the flush thread to write all pending updates without waiting for the flush interval.
+     */
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true) && !flushExecutor.isShutdown()) {
+            flushExecutor.execute(this::scheduledFlush);
+        }
+    }
+
+    /**
+     * Writes the updates and invalidates the updated products.
+     * <p>
+     * When the batch fails, the updates are written one by one, so an update that cannot be written is dropped
+     * without holding back the others.
+     *
+     * @param products {@link Product}s with new values
+     */
+    private void write(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeBatch(products);
+        } catch (RuntimeException e) {
+            logger.error("Writing batch of {} product updates failed: {}", products.size(), e.getMessage());
+            if (products.size() == 1) {
+                failedUpdates.increment();
+                return;
+            }
+
+            for (var product : products) {
+                try {
+                    writeBatch(List.of(product));
+                } catch (RuntimeException productException) {
+                    failedUpdates.increment();
+                    logger.error("Dropped update of product with id {}: {}", product.getId(), productException.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the updates in a single transaction and invalidates the updated products.
+     *
+     * @param products {@link Product}s with new values
+     */
+    private void writeBatch(List<Product> products) {
+        var updatedIds = productQueryMetrics.record(Query.SAVE, () -> transactionTemplate.execute(status -> {
+            var ids = productRepository.updateAll(products);
+            ids.forEach(id -> applicationEventPublisher.publishEvent(new ProductEvent(ProductEvent.Type.UPDATED, id)));
+            return ids;
+        }));
+        writtenUpdates.increment(updatedIds.size());
+        droppedUpdates.increment(products.size() - updatedIds.size());
+    }
+}
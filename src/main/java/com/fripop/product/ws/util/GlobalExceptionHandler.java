@@ -2,7 +2,9 @@ package com.fripop.product.ws.util;
 
 import com.fripop.product.ws.exception.BadRequestException;
 import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.exception.ServiceUnavailableException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
@@ -11,6 +13,8 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.util.DisconnectedClientHelper;
 
 /**
  * Global exception handles.
@@ -28,11 +32,18 @@ public class GlobalExceptionHandler {
      * Handles mappings for general {@link Exception}.
      *
      * @param exception {@link Exception}
-     * @return {@link ResponseEntity} with {@link Error} and {@link HttpStatus#INTERNAL_SERVER_ERROR}
+     * @return {@link ResponseEntity} with {@link Error} and {@link HttpStatus#INTERNAL_SERVER_ERROR}, or {@code null} when
+     * the client disconnected
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleException(Exception exception) {
 
+        // Skip the response when the client disconnected, for example while a response was streamed.
+        if (DisconnectedClientHelper.isClientDisconnectedException(exception)) {
+            logger.info("Client disconnected: {}", exception.getMessage());
+            return null;
+        }
+
         // Set generic message for any unhandled exception to prevent disclosing any unwanted information.
         var message = "Internal Server Error.";
 
@@ -69,6 +80,23 @@ public class GlobalExceptionHandler {
                 BadRequestException.HTTP_STATUS);
     }
 
+    /**
+     * Handles mappings for specific {@link ServiceUnavailableException}.
+     * <p>
+     * The client is asked to retry the request after a second.
+     *
+     * @param serviceUnavailableException {@link ServiceUnavailableException}
+     * @return {@link ResponseEntity} with {@link Error} and {@link HttpStatus#SERVICE_UNAVAILABLE}
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> handleServiceUnavailableException(ServiceUnavailableException serviceUnavailableException) {
+
+        logger.log(serviceUnavailableException);
+        return ResponseEntity.status(ServiceUnavailableException.HTTP_STATUS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new Error(ServiceUnavailableException.HTTP_STATUS, serviceUnavailableException.getMessage()));
+    }
+
     /**
      * Handles mappings for specific {@link BindException}.
      * <p>
@@ -103,7 +131,8 @@ public class GlobalExceptionHandler {
             MethodArgumentNotValidException.class,
             ConstraintViolationException.class,
             HandlerMethodValidationException.class,
-            MissingServletRequestParameterException.class
+            MissingServletRequestParameterException.class,
+            MethodArgumentTypeMismatchException.class
     })
     public ResponseEntity<?> handleValidationException(Exception validationException) {
 
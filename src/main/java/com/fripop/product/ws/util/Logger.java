@@ -1,15 +1,26 @@
 package com.fripop.product.ws.util;
 
+import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.Unbox;
 
 /**
  * Custom logger.
+ * <p>
+ * Messages are parameterized with {@code {}} placeholders instead of being concatenated, and every method checks the
+ * level before doing any work, so disabled messages cost nothing. Fixed argument counts avoid the varargs array and
+ * primitive arguments are boxed with reusable {@link Unbox} buffers, so enabled messages are handed to the
+ * asynchronous loggers without allocating.
  *
  * @since 1.0.0
  */
 public class Logger {
 
-    private org.apache.logging.log4j.Logger logger;
+    private final org.apache.logging.log4j.Logger logger;
+
+    private Logger(org.apache.logging.log4j.Logger logger) {
+        this.logger = logger;
+    }
 
     /**
      * Creates a new logger to be used.
@@ -18,9 +29,7 @@ public class Logger {
      * @return created {@link Logger}
      */
     public static Logger getLogger(Class<?> clazz) {
-        var newLogger = new Logger();
-        newLogger.logger = org.apache.logging.log4j.LogManager.getLogger(clazz);
-        return newLogger;
+        return new Logger(LogManager.getLogger(clazz));
     }
 
     /**
@@ -29,17 +38,82 @@ public class Logger {
      * @param message {@link Message}
      */
     public void info(Message message) {
-        logger.info(message);
+        if (logger.isInfoEnabled()) {
+            logger.info(message);
+        }
     }
 
     /**
      * Log info.
      *
-     * @param message {@link Message}
-     * @param args    arguments
+     * @param message message
+     */
+    public void info(String message) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message);
+        }
+    }
+
+    /**
+     * Log info.
+     *
+     * @param message message with a placeholder
+     * @param arg     argument
      */
-    public void info(String message, Object... args) {
-        logger.info(message, args);
+    public void info(String message, Object arg) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message, arg);
+        }
+    }
+
+    /**
+     * Log info.
+     *
+     * @param message message with a placeholder
+     * @param arg     argument
+     */
+    public void info(String message, long arg) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message, Unbox.box(arg));
+        }
+    }
+
+    /**
+     * Log info.
+     *
+     * @param message message with two placeholders
+     * @param arg1    first argument
+     * @param arg2    second argument
+     */
+    public void info(String message, Object arg1, Object arg2) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message, arg1, arg2);
+        }
+    }
+
+    /**
+     * Log info.
+     *
+     * @param message message with two placeholders
+     * @param arg1    first argument
+     * @param arg2    second argument
+     */
+    public void info(String message, long arg1, long arg2) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message, Unbox.box(arg1), Unbox.box(arg2));
+        }
+    }
+
+    /**
+     * Log warning.
+     *
+     * @param message message with a placeholder
+     * @param arg     argument
+     */
+    public void warn(String message, Object arg) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(message, arg);
+        }
     }
 
     /**
@@ -48,17 +122,45 @@ public class Logger {
      * @param message {@link Message}
      */
     public void error(Message message) {
-        logger.info(message);
+        if (logger.isErrorEnabled()) {
+            logger.error(message);
+        }
     }
 
     /**
      * Log error.
      *
-     * @param message {@link Message}
-     * @param args    arguments
+     * @param message message
+     */
+    public void error(String message) {
+        if (logger.isErrorEnabled()) {
+            logger.error(message);
+        }
+    }
+
+    /**
+     * Log error.
+     *
+     * @param message message with a placeholder
+     * @param arg     argument
+     */
+    public void error(String message, Object arg) {
+        if (logger.isErrorEnabled()) {
+            logger.error(message, arg);
+        }
+    }
+
+    /**
+     * Log error.
+     *
+     * @param message message with two placeholders
+     * @param arg1    first argument
+     * @param arg2    second argument
      */
-    public void error(String message, Object... args) {
-        logger.error(message, args);
+    public void error(String message, Object arg1, Object arg2) {
+        if (logger.isErrorEnabled()) {
+            logger.error(message, arg1, arg2);
+        }
     }
 
     /**
@@ -67,6 +169,8 @@ public class Logger {
      * @param exception {@link Exception}
      */
     public void log(Exception exception) {
-        logger.error(exception);
+        if (logger.isErrorEnabled()) {
+            logger.error(exception);
+        }
     }
 }
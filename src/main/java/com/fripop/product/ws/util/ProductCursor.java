@@ -0,0 +1,149 @@
+package com.fripop.product.ws.util;
+
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.exception.BadRequestException;
+import com.fripop.product.ws.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Keyset pagination cursor.
+ * <p>
+ * Holds the sort property, direction and the sort key and id of the last returned {@link Product}. The next page starts
+ * right after that position, so the database can seek into the index instead of scanning and discarding rows.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+
+    /**
+     * Sort properties that are backed by an index together with the id.
+     */
+    public static final Set<String> SORT_PROPERTIES = Set.of("id", "code", "name", "price", "created");
+
+    /**
+     * Pseudo property of the change timestamp, which is the update timestamp or the creation timestamp of a product
+     * that was never updated.
+     */
+    public static final String CHANGED = "changed";
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Sort property.
+     */
+    private final String property;
+
+    /**
+     * Sort direction.
+     */
+    private final Sort.Direction direction;
+
+    /**
+     * Sort key value of the last returned product.
+     */
+    private final Comparable<?> value;
+
+    /**
+     * Id of the last returned product.
+     */
+    private final long id;
+
+    /**
+     * Creates a cursor positioned at the provided product.
+     *
+     * @param product last returned {@link ProductDto}
+     * @param order   {@link Sort.Order} used for reading products
+     * @return created {@link ProductCursor}
+     */
+    public static ProductCursor of(ProductDto product, Sort.Order order) {
+        Comparable<?> value = switch (order.getProperty()) {
+            case "code" -> product.getCode();
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            case "created" -> product.getCreated();
+            case CHANGED -> product.getUpdated() != null ? product.getUpdated() : product.getCreated();
+            default -> product.getId();
+        };
+
+        return new ProductCursor(order.getProperty(), order.getDirection(), value, product.getId());
+    }
+
+    /**
+     * Decodes an opaque cursor.
+     *
+     * @param cursor encoded cursor
+     * @return decoded {@link ProductCursor}
+     * @throws BadRequestException when cursor is not valid
+     */
+    public static ProductCursor decode(String cursor) throws BadRequestException {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            var property = parts[0];
+            var direction = Sort.Direction.fromString(parts[1]);
+            var id = Long.parseLong(parts[2]);
+            var value = parts[3];
+
+            Comparable<?> parsedValue = switch (property) {
+                case "id" -> id;
+                case "code", "name" -> value;
+                case "price" -> new BigDecimal(value);
+                case "created", CHANGED -> Timestamp.from(Instant.parse(value));
+                default -> throw new IllegalArgumentException("Unsupported cursor property " + property);
+            };
+
+            return new ProductCursor(property, direction, parsedValue, id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor " + cursor);
+        }
+    }
+
+    /**
+     * Encodes this cursor into an opaque url safe value.
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        var valuePart = String.valueOf(value);
+        if (value instanceof BigDecimal price) {
+            valuePart = price.toPlainString();
+        } else if (value instanceof Timestamp timestamp) {
+            valuePart = timestamp.toInstant().toString();
+        }
+
+        var cursor = property + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + valuePart;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the {@link Sort} this cursor was created for, with the id as a tiebreaker.
+     *
+     * @return {@link Sort}
+     */
+    public Sort toSort() {
+        return ProductCursor.sort(new Sort.Order(direction, property));
+    }
+
+    /**
+     * Creates a {@link Sort} by the provided order, with the id as a tiebreaker.
+     *
+     * @param order {@link Sort.Order} by an indexed property
+     * @return {@link Sort}
+     */
+    public static Sort sort(Sort.Order order) {
+        if ("id".equals(order.getProperty())) {
+            return Sort.by(order);
+        }
+        return Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.fripop.product.ws.util;
+
+import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.model.ProductVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Strong entity tags of product representations.
+ * <p>
+ * Entity tags are derived from product ids and the timestamps of their last change, so they can be computed from a
+ * {@link ProductVersion} lookup without loading and serializing the products.
+ *
+ * @since 1.0.0
+ */
+public final class ProductETag {
+
+    private ProductETag() {
+    }
+
+    /**
+     * Creates an entity tag of a single product.
+     *
+     * @param productVersion {@link ProductVersion}
+     * @return quoted entity tag
+     */
+    public static String of(ProductVersion productVersion) {
+        return "\"" + productVersion.getId() + "-" + micros(productVersion.getVersion()) + "\"";
+    }
+
+    /**
+     * Creates an entity tag of a page of products.
+     *
+     * @param productVersions {@link ProductVersion}s of products on the page
+     * @param totalNumber     optional total number of products
+     * @param hasNext         optional flag indicating if there are more products
+     * @return quoted entity tag
+     */
+    public static String of(List<ProductVersion> productVersions, Long totalNumber, Boolean hasNext) {
+        var content = new StringBuilder();
+        for (var productVersion : productVersions) {
+            content.append(productVersion.getId()).append(':').append(micros(productVersion.getVersion())).append(';');
+        }
+        content.append(totalNumber).append(';').append(hasNext);
+
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Creates an entity tag of a page of products.
+     *
+     * @param products {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s
+     * @return quoted entity tag
+     */
+    public static String of(ObjectsResponseDto<ProductDto> products) {
+        var productVersions = products.getObjects().stream().map(ProductETag::version).toList();
+        return of(productVersions, products.getTotalNumber(), products.getHasNext());
+    }
+
+    /**
+     * Creates the entity tag of another representation of the same products, so different representations never share
+     * an entity tag.
+     *
+     * @param eTag           quoted entity tag of the JSON representation
+     * @param representation name of the representation, for example {@code cbor}
+     * @return quoted entity tag
+     */
+    public static String of(String eTag, String representation) {
+        return eTag.substring(0, eTag.length() - 1) + "-" + representation + "\"";
+    }
+
+    /**
+     * Returns the {@link ProductVersion} of a product.
+     *
+     * @param product {@link ProductDto}
+     * @return {@link ProductVersion}
+     */
+    public static ProductVersion version(ProductDto product) {
+        return new ProductVersion(product.getId(), Objects.requireNonNullElse(product.getUpdated(), product.getCreated()));
+    }
+
+    private static long micros(Timestamp timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        return timestamp.getTime() / 1000 * 1_000_000 + timestamp.getNanos() / 1000;
+    }
+}
@@ -0,0 +1,105 @@
+package com.fripop.product.ws.util;
+
+import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.dto.SparseProductDto;
+import com.fripop.product.ws.exception.BadRequestException;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets of product representations.
+ * <p>
+ * Clients may request only some of the {@link ProductDto} fields. Only the columns of the requested fields are selected
+ * and only the requested fields are written, always in the order of {@link #ALL}, so the same fieldset always has
+ * the same representation.
+ *
+ * @since 1.0.0
+ */
+public final class ProductFields {
+
+    /**
+     * All fields of a product in the order of the {@link ProductDto} properties.
+     */
+    public static final List<String> ALL = List.of("id", "code", "created", "updated", "active", "name", "price");
+
+    private static final String SEPARATOR = ",";
+
+    private ProductFields() {
+    }
+
+    /**
+     * Parses comma separated product fields.
+     *
+     * @param fields optional comma separated fields
+     * @return requested fields in the order of {@link #ALL}, or {@code null} when all fields are requested
+     * @throws BadRequestException when a field is not known
+     */
+    public static Set<String> parse(String fields) throws BadRequestException {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+
+        var requested = new LinkedHashSet<String>();
+        for (var field : fields.split(SEPARATOR)) {
+            if (!ALL.contains(field.strip())) {
+                throw new BadRequestException("Unknown product field " + field.strip() + ", supported fields are " + String.join(SEPARATOR, ALL));
+            }
+            requested.add(field.strip());
+        }
+
+        var ordered = new LinkedHashSet<String>();
+        ALL.stream().filter(requested::contains).forEach(ordered::add);
+        return ordered;
+    }
+
+    /**
+     * Returns the name of the representation with only the fields, used to distinguish its entity tag.
+     *
+     * @param fields requested fields
+     * @return name of the representation
+     */
+    public static String representation(Set<String> fields) {
+        return String.join(".", fields);
+    }
+
+    /**
+     * Selects the fields of a product.
+     *
+     * @param product {@link ProductDto}
+     * @param fields  requested fields
+     * @return {@link SparseProductDto} with only the requested fields
+     */
+    public static SparseProductDto select(ProductDto product, Set<String> fields) {
+        var values = new LinkedHashMap<String, Object>();
+        for (var field : fields) {
+            values.put(field, switch (field) {
+                case "id" -> product.getId();
+                case "code" -> product.getCode();
+                case "created" -> product.getCreated();
+                case "updated" -> product.getUpdated();
+                case "active" -> product.getActive();
+                case "name" -> product.getName();
+                default -> product.getPrice();
+            });
+        }
+
+        return new SparseProductDto(values);
+    }
+
+    /**
+     * Selects the fields of the products.
+     *
+     * @param products {@link ObjectsResponseDto} containing a collection of {@link ProductDto}s
+     * @param fields   requested fields
+     * @return {@link ObjectsResponseDto} containing a collection of {@link SparseProductDto}s with only the requested
+     * fields
+     */
+    public static ObjectsResponseDto<SparseProductDto> select(ObjectsResponseDto<ProductDto> products, Set<String> fields) {
+        var objects = products.getObjects().stream().map(product -> select(product, fields)).toList();
+        return new ObjectsResponseDto<>(products.getTotalNumber(), objects, products.getNext(), products.getHasNext());
+    }
+}
@@ -0,0 +1,59 @@
+package com.fripop.product.ws.util;
+
+import com.fripop.product.ws.service.ProductQueryMetrics;
+import io.micrometer.common.KeyValues;
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ProductObservationConvention} adds the shape of the product filter and the bucketed page size to the
+ * {@code http.server.requests} metrics.
+ * <p>
+ * Tags are derived from the presence of the filter parameters and from the page size range the same way as the
+ * {@link ProductQueryMetrics} tags, so their number of values stays bounded.
+ *
+ * @since 1.0.0
+ */
+@Component
+public class ProductObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private final int defaultPageSize;
+
+    public ProductObservationConvention(SpringDataWebProperties springDataWebProperties) {
+        this.defaultPageSize = springDataWebProperties.getPageable().getDefaultPageSize();
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        var request = context.getCarrier();
+        var filter = ProductQueryMetrics.filterTag(request.getParameter("name") != null,
+                request.getParameter("price-start") != null || request.getParameter("price-end") != null,
+                request.getParameter("active") != null);
+
+        // Only product lists are paged; they use the default page size when it is not requested.
+        var pageSize = ProductQueryMetrics.NONE;
+        if (HttpMethod.GET.matches(request.getMethod()) && "/products".equals(context.getPathPattern())) {
+            pageSize = ProductQueryMetrics.pageSizeTag(parsePageSize(request.getParameter("size")));
+        }
+
+        return super.getLowCardinalityKeyValues(context).and("filter", filter).and("page.size", pageSize);
+    }
+
+    /**
+     * Parses the requested page size the same way as the page size of the {@code Pageable} argument.
+     *
+     * @param size requested page size
+     * @return page size
+     */
+    private int parsePageSize(String size) {
+        try {
+            var pageSize = size != null ? Integer.parseInt(size) : defaultPageSize;
+            return pageSize > 0 ? pageSize : defaultPageSize;
+        } catch (NumberFormatException e) {
+            return defaultPageSize;
+        }
+    }
+}
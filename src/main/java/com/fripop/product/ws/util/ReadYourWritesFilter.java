@@ -0,0 +1,76 @@
+package com.fripop.product.ws.util;
+
+import com.fripop.product.ws.config.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * {@link ReadYourWritesFilter} sends the reads of a client that has just written to the primary database.
+ * <p>
+ * Clients are identified by the {@code X-Client-Id} header, or by their address when enabled, which is only safe when
+ * clients do not share an address behind a proxy or a load balancer. After a successful write request,
+ * read-only transactions of the client read from the primary until the read-your-writes window passes, so the client
+ * does not miss its own changes while the replicas catch up. Requests that only read, such as the product lookup, do
+ * not start the window even when they are posted. Recent writers are remembered only by this instance. The filter is
+ * registered only when replicas are configured.
+ *
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnExpression("'${product.replica.urls:}' != ''")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Header identifying a client that shares its address with other clients.
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Set<String> READ_PATHS = Set.of("/products/lookup");
+    private static final long MAXIMUM_CLIENTS = 100000;
+
+    private final Cache<String, Boolean> recentWriters;
+    private final boolean clientAddress;
+
+    public ReadYourWritesFilter(@Value("${product.replica.read-your-writes-window:5s}") Duration readYourWritesWindow,
+                                @Value("${product.replica.client-address:false}") boolean clientAddress) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWritesWindow).maximumSize(MAXIMUM_CLIENTS).build();
+        this.clientAddress = clientAddress;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var clientId = request.getHeader(CLIENT_ID_HEADER);
+        var client = clientId != null ? clientId : clientAddress ? request.getRemoteAddr() : null;
+        if (client == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaRoutingDataSource.setPrimaryRequired(recentWriters.getIfPresent(client) != null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(false);
+        }
+
+        // Start the window once the changes are committed and the client was answered.
+        if (WRITE_METHODS.contains(request.getMethod()) && !READ_PATHS.contains(request.getServletPath())
+                && response.getStatus() < 400) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.fripop.product.ws.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fripop.product.ws.dto.CapturedRequestDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RequestCaptureFilter} records a sample of incoming requests to a JSON lines file, one
+ * {@link CapturedRequestDto} per line, so that real traffic can be replayed later.
+ * <p>
+ * Only sampled requests are wrapped to capture their body, so requests that are not sampled are not slowed down.
+ * Captured requests are written by a background thread; when it cannot keep up, further requests are dropped instead
+ * of delaying responses and counted by the {@code product.capture.dropped} counter. When the file cannot be written,
+ * sampling is paused and writing is retried periodically. The filter is registered only when
+ * {@code product.capture.enabled} is {@code true}.
+ *
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "product.capture.enabled", havingValue = "true")
+public class RequestCaptureFilter extends OncePerRequestFilter {
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final long RETRY_MILLIS = 5000;
+
+    private final Logger captureLogger = Logger.getLogger(RequestCaptureFilter.class);
+    private final ObjectWriter capturedRequestWriter;
+    private final double samplingRate;
+    private final int maxBodySize;
+    private final Path file;
+    private final BlockingQueue<CapturedRequestDto> capturedRequests = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Counter droppedRequests;
+    private final Thread writerThread;
+    private volatile boolean writing = true;
+
+    public RequestCaptureFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${product.capture.sampling-rate:0.01}") double samplingRate,
+                                @Value("${product.capture.max-body-size:65536}") int maxBodySize,
+                                @Value("${product.capture.file:captured-requests.jsonl}") Path file) {
+        this.capturedRequestWriter = objectMapper.writerFor(CapturedRequestDto.class);
+        this.samplingRate = samplingRate;
+        this.maxBodySize = maxBodySize;
+        this.file = file;
+        this.droppedRequests = meterRegistry.counter("product.capture.dropped");
+        this.writerThread = new Thread(this::writeCapturedRequests, "request-capture");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Pass requests that are not sampled, or cannot be written, without wrapping them.
+        var path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!writing || path.startsWith("/actuator") || ThreadLocalRandom.current().nextDouble() >= samplingRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var timestamp = System.currentTimeMillis();
+        var start = System.nanoTime();
+        var bodyTruncated = new boolean[1];
+        var cachingRequest = new ContentCachingRequestWrapper(request, maxBodySize) {
+            @Override
+            protected void handleContentOverflow(int contentCacheLimit) {
+                bodyTruncated[0] = true;
+            }
+        };
+
+        try {
+            filterChain.doFilter(cachingRequest, response);
+        } finally {
+            Runnable capture = () -> capture(cachingRequest, response, path, timestamp, start, bodyTruncated[0]);
+
+            // Capture streamed responses once they are completed.
+            if (cachingRequest.isAsyncStarted()) {
+                cachingRequest.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        capture.run();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                capture.run();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (!writerThread.isAlive()) {
+            return;
+        }
+
+        // Let the writer write the remaining captured requests.
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (droppedRequests.count() > 0) {
+            captureLogger.info("Dropped {} captured requests", (long) droppedRequests.count());
+        }
+    }
+
+    private void capture(ContentCachingRequestWrapper request, HttpServletResponse response, String path, long timestamp,
+                         long start, boolean bodyTruncated) {
+        var body = request.getContentAsByteArray();
+        var capturedRequest = new CapturedRequestDto(timestamp, request.getMethod(), path, request.getQueryString(),
+                body.length > 0 || bodyTruncated ? request.getContentType() : null,
+                body.length > 0 && !bodyTruncated ? new String(body, StandardCharsets.UTF_8) : null,
+                bodyTruncated, response.getStatus(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+
+        if (!capturedRequests.offer(capturedRequest)) {
+            droppedRequests.increment();
+        }
+    }
+
+    /**
+     * Appends captured requests to the file until interrupted.
+     * <p>
+     * When the file cannot be written, the request being written is dropped, sampling is paused and the file is opened
+     * again after a while. Requests captured before the failure stay queued.
+     */
+    private void writeCapturedRequests() {
+        while (true) {
+            try {
+                if (writeCapturedRequestsToFile()) {
+                    return;
+                }
+            } catch (IOException e) {
+                writing = false;
+                captureLogger.error("Writing captured requests to {} failed, retrying: {}", file, e.getMessage());
+            }
+
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends captured requests to the file until interrupted, flushing whenever there are no more requests waiting.
+     *
+     * @return {@code true} when interrupted after writing all captured requests
+     * @throws IOException when the file cannot be written
+     */
+    private boolean writeCapturedRequestsToFile() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            writing = true;
+            while (true) {
+                var capturedRequest = capturedRequests.poll();
+                if (capturedRequest == null) {
+                    writer.flush();
+                    try {
+                        capturedRequest = capturedRequests.take();
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                write(writer, capturedRequest);
+            }
+
+            // Write requests captured before the shutdown.
+            CapturedRequestDto capturedRequest;
+            while ((capturedRequest = capturedRequests.poll()) != null) {
+                write(writer, capturedRequest);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes a captured request as a single line, counting it as dropped when it cannot be written.
+     *
+     * @param writer          {@link Writer} of the file
+     * @param capturedRequest {@link CapturedRequestDto}
+     * @throws IOException when the file cannot be written
+     */
+    private void write(Writer writer, CapturedRequestDto capturedRequest) throws IOException {
+        try {
+            writer.write(capturedRequestWriter.writeValueAsString(capturedRequest));
+            writer.write('\n');
+        } catch (IOException e) {
+            droppedRequests.increment();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Database objects that cannot be declared with JPA annotations.
+-- The script is executed at every startup after the schema is generated, so every statement must be idempotent.
+
+-- Trigram index used by the case-insensitive product name search; the pg_trgm extension is created by the migration.
+CREATE INDEX IF NOT EXISTS product_name_trgm_idx ON product USING gin (lower(name) gin_trgm_ops);
+
+-- Index on the change timestamp used by the delta synchronization.
+CREATE INDEX IF NOT EXISTS product_changed_id_idx ON product ((COALESCE(updated, created)), id);
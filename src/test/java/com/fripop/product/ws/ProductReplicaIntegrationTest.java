@@ -0,0 +1,133 @@
+package com.fripop.product.ws;
+
+import com.fripop.product.ws.config.ReplicaRoutingDataSource;
+import com.fripop.product.ws.util.ReadYourWritesFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test scenarios for the routing of database connections to read replicas.
+ * <p>
+ * The replica is the database of {@code DB_URL} connected with another application name, so the tests can tell which
+ * of the two connection pools served a transaction. Make sure that environment variables are set.
+ *
+ * @since 1.0.0
+ */
+@SpringBootTest(properties = "product.replica.urls=${DB_URL:jdbc:postgresql://localhost:5432/product}?ApplicationName=" + ProductReplicaIntegrationTest.REPLICA)
+public class ProductReplicaIntegrationTest {
+
+    static final String REPLICA = "product-replica";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    /**
+     * Test routing of read-only and read-write transactions.
+     */
+    @Test
+    @DisplayName("Test replica routing")
+    void testReplicaRouting() {
+
+        // Test - Read-only transaction is expected to read from the replica and read-write transaction to use the primary.
+        assertEquals(REPLICA, applicationName(true), "Replica is expected for read-only transaction.");
+        assertNotEquals(REPLICA, applicationName(false), "Primary is expected for read-write transaction.");
+
+        // Test - Read-only transaction is expected to read from the primary while it is required.
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        try {
+            assertNotEquals(REPLICA, applicationName(true), "Primary is expected while it is required.");
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(false);
+        }
+    }
+
+    /**
+     * Test reading own writes.
+     *
+     * @throws Exception that is not expected
+     */
+    @Test
+    @DisplayName("Test read-your-writes routing")
+    void testReadYourWrites() throws Exception {
+
+        // Test - Client is expected to read from the primary after it wrote, and other clients from the replica.
+        assertEquals(REPLICA, filteredApplicationName("GET", "/products", "test-client-1"));
+        filteredApplicationName("POST", "/products", "test-client-1");
+        assertNotEquals(REPLICA, filteredApplicationName("GET", "/products", "test-client-1"), "Primary is expected after a write.");
+        assertEquals(REPLICA, filteredApplicationName("GET", "/products", "test-client-2"), "Replica is expected for other client.");
+
+        // Test - Lookup is expected not to be a write and clients without id not to be recognized by their address.
+        filteredApplicationName("POST", "/products/lookup", "test-client-3");
+        assertEquals(REPLICA, filteredApplicationName("GET", "/products", "test-client-3"), "Replica is expected after a lookup.");
+        filteredApplicationName("POST", "/products", null);
+        assertEquals(REPLICA, filteredApplicationName("GET", "/products", null), "Replica is expected for client without id.");
+
+        // Test - Asynchronous task is expected to read from the primary when the submitting thread does.
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        try {
+            var asyncApplicationName = applicationTaskExecutor.submit(() -> applicationName(true));
+            assertNotEquals(REPLICA, asyncApplicationName.get(10, TimeUnit.SECONDS), "Primary is expected for asynchronous task.");
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(false);
+        }
+        var asyncApplicationName = applicationTaskExecutor.submit(() -> applicationName(true));
+        assertEquals(REPLICA, asyncApplicationName.get(10, TimeUnit.SECONDS), "Replica is expected for asynchronous task.");
+    }
+
+    /**
+     * Returns the application name of the connection used by a transaction.
+     *
+     * @param readOnly whether the transaction is read-only
+     * @return application name
+     */
+    private String applicationName(boolean readOnly) {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT current_setting('application_name')", String.class));
+    }
+
+    /**
+     * Passes a request through the {@link ReadYourWritesFilter} and returns the application name of the connection
+     * used by a read-only transaction of the request.
+     *
+     * @param method   request method
+     * @param path     request path
+     * @param clientId optional client id
+     * @return application name
+     * @throws Exception that is not expected
+     */
+    private String filteredApplicationName(String method, String path, String clientId) throws Exception {
+        var request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        if (clientId != null) {
+            request.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, clientId);
+        }
+        var applicationName = new AtomicReference<String>();
+        readYourWritesFilter.doFilter(request, new MockHttpServletResponse(), (filteredRequest, response) -> applicationName.set(applicationName(true)));
+        return applicationName.get();
+    }
+}
@@ -1,22 +1,60 @@
 package com.fripop.product.ws;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fripop.product.ws.config.CborConfiguration;
 import com.fripop.product.ws.controller.ProductController;
 import com.fripop.product.ws.dto.ObjectsResponseDto;
+import com.fripop.product.ws.dto.ProductBatchResultDto;
 import com.fripop.product.ws.dto.ProductCreateDto;
 import com.fripop.product.ws.dto.ProductDto;
+import com.fripop.product.ws.dto.ProductImportResultDto;
+import com.fripop.product.ws.dto.ProductLookupDto;
+import com.fripop.product.ws.dto.ProductLookupResultDto;
 import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.event.ProductEvent;
+import com.fripop.product.ws.exception.NotFoundException;
+import com.fripop.product.ws.exception.ServiceUnavailableException;
+import com.fripop.product.ws.model.Product;
 import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.repository.ProductTombstoneRepository;
+import com.fripop.product.ws.service.ProductDeltaService;
+import com.fripop.product.ws.service.ProductJsonCache;
+import com.fripop.product.ws.service.ProductQueryMetrics;
+import com.fripop.product.ws.service.ProductUpdateBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,6 +76,24 @@ public class ProductServiceIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private ProductJsonCache productJsonCache;
+
+    @Autowired
+    private ProductQueryMetrics productQueryMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     private static Long PRODUCT_ID;
 
     /**
@@ -113,4 +169,927 @@ public class ProductServiceIntegrationTest {
         var deleteResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.DELETE, null, String.class);
         assertEquals(HttpStatus.NO_CONTENT, deleteResponse.getStatusCode());
     }
+
+    /**
+     * Test product batch create endpoint.
+     */
+    @Test
+    @DisplayName("Test product batch create endpoint")
+    void testProductBatchCreateEndpoint() {
+
+        // Prepare a valid, an invalid and another valid product.
+        var productCreateDtos = List.of(
+                new ProductCreateDto(UUID.randomUUID().toString(), true, "test-product-batch-1", new BigDecimal("1.5")),
+                new ProductCreateDto(null, true, "", new BigDecimal("2.5")),
+                new ProductCreateDto(null, false, "test-product-batch-2", new BigDecimal("3.5")));
+
+        // Perform product batch create request and validate the response status.
+        var createResponse = testRestTemplate.exchange("/products/batch", HttpMethod.POST, new HttpEntity<>(productCreateDtos),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductBatchResultDto>>() {
+                });
+        assertEquals(HttpStatus.CREATED, createResponse.getStatusCode());
+
+        // Validate that results are returned in the input order.
+        var results = Objects.requireNonNull(createResponse.getBody()).getObjects();
+        assertEquals(3, results.size(), "Result for every item is expected.");
+        assertNotNull(results.get(0).getId(), "First product is expected to be created.");
+        assertNull(results.get(1).getId(), "Invalid product is not expected to be created.");
+        assertFalse(results.get(1).getErrors().isEmpty(), "Invalid product errors are expected.");
+        assertNotNull(results.get(2).getId(), "Last product is expected to be created.");
+
+        // Validate that the created products can be read and clean them up.
+        for (var index : List.of(0, 2)) {
+            var id = results.get(index).getId();
+            var getResponse = testRestTemplate.getForEntity("/products/" + id, ProductDto.class);
+            assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+            assertEquals(productCreateDtos.get(index).getName(), Objects.requireNonNull(getResponse.getBody()).getName(),
+                    "Product name is expected to match.");
+            productRepository.deleteById(id);
+        }
+
+        // Test - Empty batch is expected to be rejected.
+        var emptyResponse = testRestTemplate.postForEntity("/products/batch", List.of(), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, emptyResponse.getStatusCode());
+    }
+
+    /**
+     * Test product lookup endpoint.
+     */
+    @Test
+    @DisplayName("Test product lookup endpoint")
+    void testProductLookupEndpoint() {
+
+        // Create two new products.
+        var firstResponse = testRestTemplate.postForEntity("/products",
+                new ProductCreateDto(UUID.randomUUID().toString(), true, "test-product-lookup-1", new BigDecimal("1.5")), ProductDto.class);
+        var secondResponse = testRestTemplate.postForEntity("/products",
+                new ProductCreateDto(null, true, "test-product-lookup-2", new BigDecimal("2.5")), ProductDto.class);
+        var first = Objects.requireNonNull(firstResponse.getBody());
+        var second = Objects.requireNonNull(secondResponse.getBody());
+
+        // Test - Results are expected in the request order with missing products marked as not found.
+        var productLookupDto = new ProductLookupDto(List.of(second.getId(), Long.MAX_VALUE, first.getId(), second.getId()),
+                List.of("missing-code", first.getCode()));
+        var lookupResponse = testRestTemplate.exchange("/products/lookup", HttpMethod.POST, new HttpEntity<>(productLookupDto),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductLookupResultDto>>() {
+                });
+        assertEquals(HttpStatus.OK, lookupResponse.getStatusCode());
+        var results = Objects.requireNonNull(lookupResponse.getBody()).getObjects();
+        assertEquals(6, results.size(), "Result for every key is expected.");
+        assertEquals("test-product-lookup-2", results.get(0).getProduct().getName(), "Second product is expected first.");
+        assertEquals(Long.MAX_VALUE, results.get(1).getId(), "Requested id is expected.");
+        assertFalse(results.get(1).getFound(), "Missing product is expected not to be found.");
+        assertNull(results.get(1).getProduct(), "Missing product is not expected.");
+        assertEquals(first.getId(), results.get(2).getProduct().getId(), "First product is expected.");
+        assertTrue(results.get(3).getFound(), "Repeated product is expected to be found.");
+        assertEquals("missing-code", results.get(4).getCode(), "Requested code is expected.");
+        assertFalse(results.get(4).getFound(), "Missing product is expected not to be found.");
+        assertEquals(first.getId(), results.get(5).getProduct().getId(), "Product is expected to be found by code.");
+
+        // Test - Keys are expected to be read in multiple chunks.
+        var ids = new ArrayList<Long>();
+        for (var id = 1L; id <= 3 * ProductRepository.IN_CHUNK_SIZE; id++) {
+            ids.add(id);
+        }
+        ids.add(second.getId());
+        var chunkedResponse = testRestTemplate.exchange("/products/lookup", HttpMethod.POST, new HttpEntity<>(new ProductLookupDto(ids, null)),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductLookupResultDto>>() {
+                });
+        var chunkedResults = Objects.requireNonNull(chunkedResponse.getBody()).getObjects();
+        assertEquals(ids.size(), chunkedResults.size(), "Result for every key is expected.");
+        assertTrue(chunkedResults.get(ids.size() - 1).getFound(), "Product in the last chunk is expected to be found.");
+
+        // Test - Empty lookup is expected to be rejected.
+        var emptyResponse = testRestTemplate.postForEntity("/products/lookup", new ProductLookupDto(List.of(), null), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, emptyResponse.getStatusCode());
+
+        productRepository.deleteById(first.getId());
+        productRepository.deleteById(second.getId());
+    }
+
+    /**
+     * Test product code endpoints.
+     */
+    @Test
+    @DisplayName("Test product code endpoints")
+    void testProductCodeEndpoints() {
+        var code = UUID.randomUUID().toString();
+
+        // Test - Product is expected to be created with the code.
+        var productUpdateDto = new ProductUpdateDto(true, "test-product-code-1", new BigDecimal("10"));
+        var createResponse = testRestTemplate.exchange("/products/code/" + code, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), ProductDto.class);
+        assertEquals(HttpStatus.CREATED, createResponse.getStatusCode());
+        var created = Objects.requireNonNull(createResponse.getBody());
+        assertEquals(code, created.getCode(), "Product code is expected to match.");
+        assertNotNull(created.getCreated(), "Product creation timestamp is expected.");
+        assertNull(created.getUpdated(), "Product update timestamp is not expected.");
+
+        // Test - Same product is expected to be updated with the code.
+        productUpdateDto = new ProductUpdateDto(false, "test-product-code-2", new BigDecimal("11"));
+        var updateResponse = testRestTemplate.exchange("/products/code/" + code, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), ProductDto.class);
+        assertEquals(HttpStatus.OK, updateResponse.getStatusCode());
+        var updated = Objects.requireNonNull(updateResponse.getBody());
+        assertEquals(created.getId(), updated.getId(), "Product id is expected to stay the same.");
+        assertEquals(created.getCreated(), updated.getCreated(), "Product creation timestamp is expected to stay the same.");
+        assertNotNull(updated.getUpdated(), "Product update timestamp is expected.");
+
+        // Test - Updated product is expected to be read by code and by id.
+        var getResponse = testRestTemplate.getForEntity("/products/code/" + code, ProductDto.class);
+        assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+        assertEquals("test-product-code-2", Objects.requireNonNull(getResponse.getBody()).getName(), "Updated product name is expected.");
+        assertFalse(getResponse.getBody().getActive(), "Updated product active flag is expected.");
+        var eTag = getResponse.getHeaders().getETag();
+        assertNotNull(eTag, "Entity tag is expected.");
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        var notModifiedResponse = testRestTemplate.exchange("/products/code/" + code, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModifiedResponse.getStatusCode());
+        var getByIdResponse = testRestTemplate.getForEntity("/products/" + created.getId(), ProductDto.class);
+        assertEquals("test-product-code-2", Objects.requireNonNull(getByIdResponse.getBody()).getName(), "Updated product is expected by id.");
+
+        // Test - Updates are expected not to reserve an id block each and a missing active flag to be rejected.
+        var sequenceBefore = jdbcTemplate.queryForObject("SELECT last_value FROM " + Product.ID_SEQUENCE, Long.class);
+        testRestTemplate.exchange("/products/code/" + code, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), ProductDto.class);
+        testRestTemplate.exchange("/products/code/" + code, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), ProductDto.class);
+        var sequenceAfter = jdbcTemplate.queryForObject("SELECT last_value FROM " + Product.ID_SEQUENCE, Long.class);
+        assertTrue(sequenceAfter - sequenceBefore <= Product.ID_ALLOCATION_SIZE, "At most one id block is expected to be reserved.");
+        var nextCode = UUID.randomUUID().toString();
+        var nextResponse = testRestTemplate.exchange("/products/code/" + nextCode, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), ProductDto.class);
+        assertEquals(HttpStatus.CREATED, nextResponse.getStatusCode());
+        productUpdateDto.setActive(null);
+        var invalidResponse = testRestTemplate.exchange("/products/code/" + nextCode, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, invalidResponse.getStatusCode());
+        productRepository.deleteById(nextResponse.getBody().getId());
+
+        // Test - Missing product is expected not to be found.
+        productRepository.deleteById(created.getId());
+        var missingResponse = testRestTemplate.getForEntity("/products/code/" + code, String.class);
+        assertEquals(HttpStatus.NOT_FOUND, missingResponse.getStatusCode());
+    }
+
+    /**
+     * Test product keyset pagination.
+     */
+    @Test
+    @DisplayName("Test product keyset pagination")
+    void testProductKeysetPagination() {
+
+        // Create products with the same price to validate that the id is used as a tiebreaker.
+        var name = "test-product-keyset-" + UUID.randomUUID();
+        var productCreateDtos = new ArrayList<ProductCreateDto>();
+        for (var index = 0; index < 5; index++) {
+            productCreateDtos.add(new ProductCreateDto(null, true, name, new BigDecimal(index < 3 ? "10" : "5")));
+        }
+        var createResponse = testRestTemplate.exchange("/products/batch", HttpMethod.POST, new HttpEntity<>(productCreateDtos),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductBatchResultDto>>() {
+                });
+        var createdIds = Objects.requireNonNull(createResponse.getBody()).getObjects().stream().map(ProductBatchResultDto::getId).toList();
+
+        try {
+
+            // Walk through all pages sorted by price and collect the ids.
+            var readIds = new ArrayList<Long>();
+            var url = "/products?pagination=KEYSET&size=2&sort=price,desc&name=" + name;
+            String cursor = null;
+            do {
+                var pageResponse = testRestTemplate.exchange(url + (cursor != null ? "&cursor=" + cursor : ""), HttpMethod.GET, null,
+                        new ParameterizedTypeReference<ObjectsResponseDto<ProductDto>>() {
+                        });
+                assertEquals(HttpStatus.OK, pageResponse.getStatusCode());
+
+                var page = Objects.requireNonNull(pageResponse.getBody());
+                assertNull(page.getTotalNumber(), "Total number is not expected with keyset pagination.");
+                page.getObjects().forEach(productDto -> readIds.add(productDto.getId()));
+                cursor = page.getNext();
+            } while (cursor != null);
+
+            // Every product is expected exactly once, the higher price first and then in descending id order.
+            var expectedIds = List.of(createdIds.get(2), createdIds.get(1), createdIds.get(0), createdIds.get(4), createdIds.get(3));
+            assertEquals(expectedIds, readIds, "Products are expected in the keyset order.");
+
+            // Test - Sorting by a property without an index is expected to be rejected.
+            var sortResponse = testRestTemplate.getForEntity("/products?pagination=KEYSET&sort=active", String.class);
+            assertEquals(HttpStatus.BAD_REQUEST, sortResponse.getStatusCode());
+        } finally {
+            productRepository.deleteAllById(createdIds);
+        }
+    }
+
+    /**
+     * Test product listing count modes.
+     */
+    @Test
+    @DisplayName("Test product listing count modes")
+    void testProductCountModes() {
+
+        // Create products with a unique name.
+        var name = "test-product-count-" + UUID.randomUUID();
+        var productCreateDtos = List.of(
+                new ProductCreateDto(null, true, name, new BigDecimal("1")),
+                new ProductCreateDto(null, true, name, new BigDecimal("2")),
+                new ProductCreateDto(null, true, name, new BigDecimal("3")));
+        var createResponse = testRestTemplate.exchange("/products/batch", HttpMethod.POST, new HttpEntity<>(productCreateDtos),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductBatchResultDto>>() {
+                });
+        var createdIds = Objects.requireNonNull(createResponse.getBody()).getObjects().stream().map(ProductBatchResultDto::getId).toList();
+        var pageType = new ParameterizedTypeReference<ObjectsResponseDto<ProductDto>>() {
+        };
+
+        try {
+
+            // Test - Exact count is expected to be returned in the body and the header.
+            var exactResponse = testRestTemplate.exchange("/products?size=2&name=" + name, HttpMethod.GET, null, pageType);
+            assertEquals(3L, Objects.requireNonNull(exactResponse.getBody()).getTotalNumber(), "Exact count is expected.");
+            assertEquals("3", exactResponse.getHeaders().getFirst("X-Total-Count"), "Total count header is expected.");
+
+            // Test - Estimated count of a filter is expected to be counted and then reused.
+            var estimatedResponse = testRestTemplate.exchange("/products?count=ESTIMATED&size=2&name=" + name, HttpMethod.GET, null, pageType);
+            assertEquals(3L, Objects.requireNonNull(estimatedResponse.getBody()).getTotalNumber(), "Estimated count is expected.");
+            assertEquals(2, estimatedResponse.getBody().getObjects().size(), "Page products are expected.");
+
+            // Test - No count is expected to return only the next page flag.
+            var firstResponse = testRestTemplate.exchange("/products?count=NONE&size=2&name=" + name, HttpMethod.GET, null, pageType);
+            var firstPage = Objects.requireNonNull(firstResponse.getBody());
+            assertNull(firstPage.getTotalNumber(), "Total number is not expected.");
+            assertNull(firstResponse.getHeaders().getFirst("X-Total-Count"), "Total count header is not expected.");
+            assertTrue(firstPage.getHasNext(), "Next page is expected.");
+            assertEquals(2, firstPage.getObjects().size(), "Page products are expected.");
+
+            var lastResponse = testRestTemplate.exchange("/products?count=NONE&size=2&page=1&name=" + name, HttpMethod.GET, null, pageType);
+            var lastPage = Objects.requireNonNull(lastResponse.getBody());
+            assertFalse(lastPage.getHasNext(), "Next page is not expected.");
+            assertEquals(1, lastPage.getObjects().size(), "Last page product is expected.");
+        } finally {
+            productRepository.deleteAllById(createdIds);
+        }
+    }
+
+    /**
+     * Test product name search.
+     */
+    @Test
+    @DisplayName("Test product name search")
+    void testProductNameSearch() {
+
+        // Create products whose names contain the searched name in a different case and with like wildcards.
+        var name = "search-" + UUID.randomUUID().toString().substring(0, 8);
+        var productCreateDtos = List.of(
+                new ProductCreateDto(null, true, "Old " + name.toUpperCase() + " 100% cotton shirt", new BigDecimal("1")),
+                new ProductCreateDto(null, true, name, new BigDecimal("2")),
+                new ProductCreateDto(null, true, "Shirt " + name, new BigDecimal("3")));
+        var createResponse = testRestTemplate.exchange("/products/batch", HttpMethod.POST, new HttpEntity<>(productCreateDtos),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductBatchResultDto>>() {
+                });
+        var createdIds = Objects.requireNonNull(createResponse.getBody()).getObjects().stream().map(ProductBatchResultDto::getId).toList();
+        var pageType = new ParameterizedTypeReference<ObjectsResponseDto<ProductDto>>() {
+        };
+
+        try {
+
+            // Test - Search is expected to be case-insensitive and ordered by relevance.
+            var searchResponse = testRestTemplate.exchange("/products?sort=relevance&name=" + name.toUpperCase(), HttpMethod.GET, null, pageType);
+            var foundIds = Objects.requireNonNull(searchResponse.getBody()).getObjects().stream().map(ProductDto::getId).toList();
+            assertEquals(List.of(createdIds.get(1), createdIds.get(2), createdIds.get(0)), foundIds,
+                    "All products are expected with the exact match first.");
+
+            // Test - Like wildcards are expected to be matched literally.
+            var wildcardResponse = testRestTemplate.exchange("/products?name={name}", HttpMethod.GET, null, pageType,
+                    name + " 100% cotton");
+            var wildcardIds = Objects.requireNonNull(wildcardResponse.getBody()).getObjects().stream().map(ProductDto::getId).toList();
+            assertEquals(List.of(createdIds.get(0)), wildcardIds, "Only the product containing the percent sign is expected.");
+
+            var underscoreResponse = testRestTemplate.exchange("/products?name={name}", HttpMethod.GET, null, pageType,
+                    name.replace('-', '_'));
+            assertTrue(Objects.requireNonNull(underscoreResponse.getBody()).getObjects().isEmpty(),
+                    "Underscore is not expected to match any character.");
+        } finally {
+            productRepository.deleteAllById(createdIds);
+        }
+    }
+
+    /**
+     * Test serialized product cache.
+     */
+    @Test
+    @DisplayName("Test serialized product cache")
+    void testProductCache() {
+
+        // Create a new product.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-cache", new BigDecimal("10"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+
+        // Read the product twice so that the second read is served from the cache.
+        for (var index = 0; index < 2; index++) {
+            var getResponse = testRestTemplate.getForEntity("/products/" + PRODUCT_ID, ProductDto.class);
+            assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+            assertEquals("test-product-cache", Objects.requireNonNull(getResponse.getBody()).getName(), "Product name is expected to match.");
+        }
+
+        // Test - Cached product is expected to be invalidated by an update.
+        var productUpdateDto = new ProductUpdateDto(true, "test-product-cache-2", new BigDecimal("11"));
+        testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), String.class);
+        var getResponse = testRestTemplate.getForEntity("/products/" + PRODUCT_ID, ProductDto.class);
+        assertEquals("test-product-cache-2", Objects.requireNonNull(getResponse.getBody()).getName(), "Updated product name is expected.");
+
+        // Test - Cached product is expected to be invalidated by a delete.
+        testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.DELETE, null, String.class);
+        var deletedResponse = testRestTemplate.getForEntity("/products/" + PRODUCT_ID, String.class);
+        assertEquals(HttpStatus.NOT_FOUND, deletedResponse.getStatusCode());
+
+        // Test - Cache metrics are expected to be exposed.
+        var metricsResponse = testRestTemplate.getForEntity("/actuator/metrics/cache.gets?tag=cache:product.json&tag=result:hit", String.class);
+        assertEquals(HttpStatus.OK, metricsResponse.getStatusCode());
+    }
+
+    /**
+     * Test product request and query metrics.
+     */
+    @Test
+    @DisplayName("Test product request and query metrics")
+    void testProductMetrics() {
+
+        // Read a filtered page of products.
+        var listResponse = testRestTemplate.getForEntity("/products?name=test-product-metrics&active=true&size=30", String.class);
+        assertEquals(HttpStatus.OK, listResponse.getStatusCode());
+
+        // Test - Query timer is expected to be tagged with the filter shape and the page size range.
+        var queryResponse = testRestTemplate.getForEntity(URI.create(testRestTemplate.getRootUri()
+                + "/actuator/metrics/product.query?tag=query:find-all&tag=filter:name%2Bactive&tag=page.size:21-50"), String.class);
+        assertEquals(HttpStatus.OK, queryResponse.getStatusCode());
+
+        // Test - Request timer is expected to be tagged the same way.
+        var requestResponse = testRestTemplate.getForEntity(URI.create(testRestTemplate.getRootUri()
+                + "/actuator/metrics/http.server.requests?tag=uri:/products&tag=filter:name%2Bactive&tag=page.size:21-50"), String.class);
+        assertEquals(HttpStatus.OK, requestResponse.getStatusCode());
+
+        // Test - Tags of unsupported values are not expected.
+        var unknownResponse = testRestTemplate.getForEntity("/actuator/metrics/product.query?tag=filter:test-product-metrics", String.class);
+        assertEquals(HttpStatus.NOT_FOUND, unknownResponse.getStatusCode());
+    }
+
+    /**
+     * Test conditional requests of products.
+     */
+    @Test
+    @DisplayName("Test conditional requests of products")
+    void testProductConditionalRequests() {
+
+        // Create a new product.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-etag", new BigDecimal("10"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+
+        // Test - Product is expected to be returned with validators.
+        var getResponse = testRestTemplate.getForEntity("/products/" + PRODUCT_ID, String.class);
+        var eTag = getResponse.getHeaders().getETag();
+        assertNotNull(eTag, "Entity tag is expected.");
+        assertTrue(getResponse.getHeaders().getLastModified() > 0, "Last modification time is expected.");
+
+        // Test - Unchanged cached and not cached product is expected not to be returned.
+        assertEquals(HttpStatus.NOT_MODIFIED, getConditionally("/products/" + PRODUCT_ID, eTag).getStatusCode());
+        productJsonCache.onProductEvent(new ProductEvent(ProductEvent.Type.UPDATED, PRODUCT_ID));
+        assertEquals(HttpStatus.NOT_MODIFIED, getConditionally("/products/" + PRODUCT_ID, eTag).getStatusCode());
+        var ifModifiedSinceHeaders = new HttpHeaders();
+        ifModifiedSinceHeaders.setIfModifiedSince(getResponse.getHeaders().getLastModified());
+        var ifModifiedSinceResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.GET, new HttpEntity<>(ifModifiedSinceHeaders), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, ifModifiedSinceResponse.getStatusCode());
+
+        // Test - Product list is expected to be returned with an entity tag.
+        var listUrl = "/products?name=test-product-etag";
+        var keysetListUrl = listUrl + "&pagination=KEYSET";
+        var listETag = testRestTemplate.getForEntity(listUrl, String.class).getHeaders().getETag();
+        var keysetListETag = testRestTemplate.getForEntity(keysetListUrl, String.class).getHeaders().getETag();
+        assertNotNull(listETag, "Entity tag of the list is expected.");
+        assertNotNull(keysetListETag, "Entity tag of the keyset list is expected.");
+        assertEquals(HttpStatus.NOT_MODIFIED, getConditionally(listUrl, listETag).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, getConditionally(keysetListUrl, keysetListETag).getStatusCode());
+
+        // Test - Changed product and list are expected to be returned with new entity tags.
+        var productUpdateDto = new ProductUpdateDto(true, "test-product-etag-2", new BigDecimal("11"));
+        testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), String.class);
+        var changedResponse = getConditionally("/products/" + PRODUCT_ID, eTag);
+        assertEquals(HttpStatus.OK, changedResponse.getStatusCode());
+        assertNotEquals(eTag, changedResponse.getHeaders().getETag(), "New entity tag is expected.");
+        var changedListResponse = getConditionally(listUrl, listETag);
+        assertEquals(HttpStatus.OK, changedListResponse.getStatusCode());
+        assertNotEquals(listETag, changedListResponse.getHeaders().getETag(), "New entity tag of the list is expected.");
+        assertEquals(HttpStatus.OK, getConditionally(keysetListUrl, keysetListETag).getStatusCode());
+    }
+
+    /**
+     * Test CBOR representation of products.
+     *
+     * @throws IOException that is not expected
+     */
+    @Test
+    @DisplayName("Test CBOR representation of products")
+    void testProductCborRepresentation() throws IOException {
+        var cborObjectMapper = CborConfiguration.cborObjectMapper();
+
+        // Create a new product.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-cbor", new BigDecimal("19.99"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        var created = Objects.requireNonNull(createResponse.getBody());
+        PRODUCT_ID = created.getId();
+        var headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+
+        // Test - Product is expected to be returned as CBOR with its own entity tag.
+        var jsonETag = testRestTemplate.getForEntity("/products/" + PRODUCT_ID, String.class).getHeaders().getETag();
+        var getResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+        assertEquals(MediaType.APPLICATION_CBOR, getResponse.getHeaders().getContentType());
+        assertNotEquals(jsonETag, getResponse.getHeaders().getETag(), "Entity tag of the CBOR representation is expected.");
+        var product = cborObjectMapper.readValue(getResponse.getBody(), ProductDto.class);
+        assertEquals("test-product-cbor", product.getName(), "Product name is expected to match.");
+        assertEquals(0, new BigDecimal("19.99").compareTo(product.getPrice()), "Product price is expected to match.");
+        assertEquals(created.getCreated(), product.getCreated(), "Product creation timestamp is expected to match.");
+        headers.setIfNoneMatch(Objects.requireNonNull(getResponse.getHeaders().getETag()));
+        var notModifiedResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModifiedResponse.getStatusCode());
+
+        // Test - Product list is expected to be returned as CBOR.
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        var listResponse = testRestTemplate.exchange("/products?name=test-product-cbor", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertEquals(MediaType.APPLICATION_CBOR, listResponse.getHeaders().getContentType());
+        assertTrue(listResponse.getHeaders().getVary().contains(HttpHeaders.ACCEPT), "Response is expected to vary by accept header.");
+        var products = cborObjectMapper.readValue(listResponse.getBody(), new TypeReference<ObjectsResponseDto<ProductDto>>() {
+        });
+        assertEquals(PRODUCT_ID, products.getObjects().get(0).getId(), "Product is expected in the list.");
+        productRepository.deleteById(PRODUCT_ID);
+    }
+
+    /**
+     * Test sparse fieldsets of products.
+     */
+    @Test
+    @DisplayName("Test sparse fieldsets of products")
+    void testProductSparseFieldsets() {
+
+        // Create a new product.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-fields", new BigDecimal("7.25"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+
+        // Test - Only the requested fields are expected to be returned in the canonical order.
+        var getResponse = testRestTemplate.getForEntity("/products/" + PRODUCT_ID + "?fields=price,name", String.class);
+        assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+        assertEquals("{\"name\":\"test-product-fields\",\"price\":7.25}", getResponse.getBody());
+        var eTag = getResponse.getHeaders().getETag();
+        assertNotEquals(testRestTemplate.getForEntity("/products/" + PRODUCT_ID, String.class).getHeaders().getETag(), eTag,
+                "Entity tag of the sparse representation is expected.");
+        assertEquals(HttpStatus.NOT_MODIFIED, getConditionally("/products/" + PRODUCT_ID + "?fields=price,name", eTag).getStatusCode());
+
+        // Test - Only the requested fields of the listed products are expected to be returned.
+        var listResponse = testRestTemplate.exchange("/products?name=test-product-fields&fields=id,price&pagination=KEYSET&sort=name", HttpMethod.GET, null,
+                new ParameterizedTypeReference<ObjectsResponseDto<LinkedHashMap<String, Object>>>() {
+                });
+        assertEquals(HttpStatus.OK, listResponse.getStatusCode());
+        var products = Objects.requireNonNull(listResponse.getBody()).getObjects();
+        assertEquals(1, products.size(), "Single product is expected.");
+        assertEquals(List.of("id", "price"), List.copyOf(products.get(0).keySet()), "Only the requested fields are expected.");
+        assertEquals(PRODUCT_ID, ((Number) products.get(0).get("id")).longValue(), "Product is expected in the list.");
+
+        // Test - Unknown fields are expected to be rejected.
+        var unknownResponse = testRestTemplate.getForEntity("/products?fields=id,description", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, unknownResponse.getStatusCode());
+        productRepository.deleteById(PRODUCT_ID);
+    }
+
+    /**
+     * Test product export endpoint.
+     */
+    @Test
+    @DisplayName("Test product export endpoint")
+    void testProductExportEndpoint() {
+
+        // Create new products.
+        var productCreateDtos = new ArrayList<ProductCreateDto>();
+        for (var index = 0; index < 3; index++) {
+            productCreateDtos.add(new ProductCreateDto(null, true, "test-product-export, \"" + index + "\"", new BigDecimal("10.5")));
+        }
+        var batchResponse = testRestTemplate.exchange("/products/batch", HttpMethod.POST, new HttpEntity<>(productCreateDtos),
+                new ParameterizedTypeReference<ObjectsResponseDto<ProductBatchResultDto>>() {
+                });
+        var createdIds = Objects.requireNonNull(batchResponse.getBody()).getObjects().stream().map(ProductBatchResultDto::getId).toList();
+
+        try {
+
+            // Test - Products are expected to be exported as newline delimited JSON ordered by id.
+            var ndjsonResponse = testRestTemplate.getForEntity("/products/export?name=test-product-export", String.class);
+            assertEquals(HttpStatus.OK, ndjsonResponse.getStatusCode());
+            assertEquals("application/x-ndjson", Objects.requireNonNull(ndjsonResponse.getHeaders().getContentType()).toString());
+            var lines = Objects.requireNonNull(ndjsonResponse.getBody()).split("\n");
+            assertEquals(3, lines.length, "Three exported products are expected.");
+            assertTrue(lines[0].contains("\"id\":" + createdIds.get(0)), "Products are expected to be ordered by id.");
+
+            // Test - Products are expected to be exported as CSV with quoted names.
+            var csvResponse = testRestTemplate.getForEntity("/products/export?name=test-product-export&format=CSV", String.class);
+            assertEquals(HttpStatus.OK, csvResponse.getStatusCode());
+            lines = Objects.requireNonNull(csvResponse.getBody()).split("\n");
+            assertEquals(4, lines.length, "Header and three exported products are expected.");
+            assertEquals("id,code,created,updated,active,name,price", lines[0]);
+            assertTrue(lines[1].startsWith(createdIds.get(0) + ","), "Products are expected to be ordered by id.");
+            assertTrue(lines[1].endsWith(",true,\"test-product-export, \"\"0\"\"\",10.50"), "Name is expected to be quoted.");
+        } finally {
+            productRepository.deleteAllById(createdIds);
+        }
+    }
+
+    /**
+     * Test product import endpoint.
+     */
+    @Test
+    @DisplayName("Test product import endpoint")
+    void testProductImportEndpoint() {
+        var code = UUID.randomUUID().toString();
+        var ndjson = """
+                {"code": "%s", "name": "test-product-import-1", "price": 10.5}
+                {"name": "test-product-import-2", "price": 11, "active": false}
+                {"name": "test-product-import-3", "price": -1}
+                not json
+
+                {"code": "%s", "name": "test-product-import-4", "price": 12}
+                {"name": "%s", "price": 13}
+                {"name": "test-product-import-5", "price": 14}
+                """.formatted(code, code, "x".repeat(70000));
+
+        try {
+
+            // Test - Valid products are expected to be imported and invalid lines rejected.
+            var ndjsonHeaders = new HttpHeaders();
+            ndjsonHeaders.setContentType(MediaType.APPLICATION_NDJSON);
+            var ndjsonResponse = testRestTemplate.postForEntity("/products/import", new HttpEntity<>(ndjson, ndjsonHeaders), ProductImportResultDto.class);
+            assertEquals(HttpStatus.CREATED, ndjsonResponse.getStatusCode());
+            var ndjsonResult = Objects.requireNonNull(ndjsonResponse.getBody());
+            assertEquals(3, ndjsonResult.getImported(), "Three imported products are expected.");
+            assertEquals(4, ndjsonResult.getRejected(), "Four rejected lines are expected.");
+            assertEquals(List.of(3, 4, 6, 7), ndjsonResult.getRejectedLines().stream().map(ProductBatchResultDto::getIndex).sorted().toList());
+            assertEquals(List.of("Product code already exists."), ndjsonResult.getRejectedLines().stream()
+                    .filter(rejectedLine -> rejectedLine.getIndex() == 6).findFirst().orElseThrow().getErrors());
+
+            // Test - Imported products are expected to have generated values.
+            var imported = productRepository.findAll(ProductRepository.filter("test-product-import", null, null, null));
+            assertEquals(3, imported.size());
+            imported.forEach(product -> {
+                assertNotNull(product.getCode(), "Product code is expected to be generated.");
+                assertNotNull(product.getCreated(), "Creation timestamp is expected.");
+            });
+
+            // Test - CSV with quoted values is expected to be imported.
+            var csv = "name,price,active\n\"test-product-import-csv, \"\"quoted\"\"\",5.25,true\ntest-product-import-csv-2,abc,true\n";
+            var csvHeaders = new HttpHeaders();
+            csvHeaders.setContentType(new MediaType("text", "csv"));
+            var csvResponse = testRestTemplate.postForEntity("/products/import?format=CSV", new HttpEntity<>(csv, csvHeaders), ProductImportResultDto.class);
+            assertEquals(HttpStatus.CREATED, csvResponse.getStatusCode());
+            var csvResult = Objects.requireNonNull(csvResponse.getBody());
+            assertEquals(1, csvResult.getImported(), "One imported product is expected.");
+            assertEquals(3, csvResult.getRejectedLines().get(0).getIndex(), "Line with invalid price is expected to be rejected.");
+            assertEquals(1, productRepository.findAll(ProductRepository.filter("test-product-import-csv, \"quoted\"", null, null, null)).size());
+
+            // Test - Too long CSV record with an unterminated quoted value is expected to be rejected.
+            var longCsv = "name,price\ntest-product-import-csv-3,6\n\"" + "x\n".repeat(40000);
+            var longCsvResponse = testRestTemplate.postForEntity("/products/import?format=CSV", new HttpEntity<>(longCsv, csvHeaders), ProductImportResultDto.class);
+            assertEquals(HttpStatus.CREATED, longCsvResponse.getStatusCode());
+            var longCsvResult = Objects.requireNonNull(longCsvResponse.getBody());
+            assertEquals(1, longCsvResult.getImported(), "One imported product is expected.");
+            assertEquals(3, longCsvResult.getRejectedLines().get(0).getIndex(), "Too long record is expected to be rejected.");
+
+            // Test - CSV without required columns is expected to be rejected.
+            var invalidCsvResponse = testRestTemplate.postForEntity("/products/import?format=CSV", new HttpEntity<>("code\n1\n", csvHeaders), String.class);
+            assertEquals(HttpStatus.BAD_REQUEST, invalidCsvResponse.getStatusCode());
+        } finally {
+            productRepository.delete(ProductRepository.filter("test-product-import", null, null, null));
+        }
+    }
+
+    /**
+     * Test partial product update endpoint.
+     */
+    @Test
+    @DisplayName("Test partial product update endpoint")
+    void testProductPatchEndpoint() {
+
+        // Create a new product.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-patch", new BigDecimal("10"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("application/merge-patch+json"));
+
+        try {
+
+            // Test - Only the provided price is expected to change.
+            var patchResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.PATCH,
+                    new HttpEntity<>("{\"price\": 12.5}", headers), String.class);
+            assertEquals(HttpStatus.NO_CONTENT, patchResponse.getStatusCode());
+            var patchedProduct = productRepository.findById(PRODUCT_ID).orElseThrow();
+            assertEquals(0, new BigDecimal("12.5").compareTo(patchedProduct.getPrice()), "Product price is expected to change.");
+            assertEquals("test-product-patch", patchedProduct.getName(), "Product name is expected not to change.");
+            assertTrue(patchedProduct.getActive(), "Product active flag is expected not to change.");
+            assertNotNull(patchedProduct.getUpdated(), "Product update timestamp is expected.");
+
+            // Test - Patch with the stored values is expected not to write the product.
+            var unchangedResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.PATCH,
+                    new HttpEntity<>("{\"price\": 12.50, \"active\": true}", headers), String.class);
+            assertEquals(HttpStatus.NO_CONTENT, unchangedResponse.getStatusCode());
+            assertEquals(patchedProduct.getUpdated(), productRepository.findById(PRODUCT_ID).orElseThrow().getUpdated(),
+                    "Product update timestamp is expected not to change.");
+
+            // Test - Invalid values and missing products are expected to be rejected.
+            var invalidResponse = testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.PATCH,
+                    new HttpEntity<>("{\"name\": \" \", \"price\": -1}", headers), String.class);
+            assertEquals(HttpStatus.BAD_REQUEST, invalidResponse.getStatusCode());
+            var missingResponse = testRestTemplate.exchange("/products/" + Long.MAX_VALUE, HttpMethod.PATCH,
+                    new HttpEntity<>("{\"name\": \"test-product-patch\"}", headers), String.class);
+            assertEquals(HttpStatus.NOT_FOUND, missingResponse.getStatusCode());
+        } finally {
+            productRepository.deleteById(PRODUCT_ID);
+        }
+    }
+
+    /**
+     * Test buffered product updates.
+     */
+    @Test
+    @DisplayName("Test buffered product updates")
+    void testProductUpdateBuffer() throws Exception {
+
+        // Create new products and a buffer that is flushed only explicitly.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-buffer", new BigDecimal("10"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+        var deletedId = Objects.requireNonNull(testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class).getBody()).getId();
+        var otherId = Objects.requireNonNull(testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class).getBody()).getId();
+        var meterRegistry = new SimpleMeterRegistry();
+        var productUpdateBuffer = new ProductUpdateBuffer(productRepository, productQueryMetrics, transactionTemplate,
+                applicationEventPublisher, meterRegistry, Duration.ofHours(1), 10);
+
+        try {
+
+            // Test - Updates are expected not to be written before the flush, only the latest one is kept and the missing product is rejected.
+            productUpdateBuffer.submit(PRODUCT_ID, new ProductUpdateDto(true, "test-product-buffer-1", new BigDecimal("11")));
+            productUpdateBuffer.submit(PRODUCT_ID, new ProductUpdateDto(false, "test-product-buffer-2", new BigDecimal("12")));
+            productUpdateBuffer.submit(deletedId, new ProductUpdateDto(true, "test-product-buffer", new BigDecimal("13")));
+            assertThrows(NotFoundException.class,
+                    () -> productUpdateBuffer.submit(Long.MAX_VALUE, new ProductUpdateDto(true, "test-product-buffer", new BigDecimal("13"))));
+            assertEquals("test-product-buffer", productRepository.findById(PRODUCT_ID).orElseThrow().getName(), "Product is expected not to be written yet.");
+
+            // Test - Latest update is expected to be written and the product deleted meanwhile to be dropped.
+            productRepository.deleteById(deletedId);
+            productUpdateBuffer.flush();
+            var product = productRepository.findById(PRODUCT_ID).orElseThrow();
+            assertEquals("test-product-buffer-2", product.getName(), "Latest product name is expected.");
+            assertFalse(product.getActive(), "Latest product active flag is expected.");
+            assertEquals(0, new BigDecimal("12").compareTo(product.getPrice()), "Latest product price is expected.");
+            assertNotNull(product.getUpdated(), "Product update timestamp is expected.");
+            assertEquals(1, meterRegistry.counter("product.update-buffer.coalesced").count(), "One coalesced update is expected.");
+            assertEquals(1, meterRegistry.counter("product.update-buffer.written").count(), "One written update is expected.");
+            assertEquals(1, meterRegistry.counter("product.update-buffer.dropped").count(), "One dropped update is expected.");
+
+            // Test - Update that cannot be written is expected to be dropped without holding back the others.
+            productUpdateBuffer.submit(PRODUCT_ID, new ProductUpdateDto(true, "test-product-buffer-3", new BigDecimal("14")));
+            productUpdateBuffer.submit(otherId, new ProductUpdateDto(null, "test-product-buffer", new BigDecimal("15")));
+            productUpdateBuffer.flush();
+            assertEquals("test-product-buffer-3", productRepository.findById(PRODUCT_ID).orElseThrow().getName(), "Valid update is expected to be written.");
+            assertEquals(1, meterRegistry.counter("product.update-buffer.failed").count(), "One failed update is expected.");
+            productUpdateBuffer.flush();
+            assertEquals(2, meterRegistry.counter("product.update-buffer.written").count(), "Failed update is expected not to be retried.");
+
+            // Test - Pending update is expected to be written before an update by code.
+            var code = productRepository.findById(PRODUCT_ID).orElseThrow().getCode();
+            productUpdateBuffer.submit(PRODUCT_ID, new ProductUpdateDto(true, "test-product-buffer-code", new BigDecimal("15")));
+            productUpdateBuffer.submit(otherId, new ProductUpdateDto(true, "test-product-buffer-other", new BigDecimal("15")));
+            productUpdateBuffer.flush(code);
+            assertEquals("test-product-buffer-code", productRepository.findById(PRODUCT_ID).orElseThrow().getName(), "Pending update is expected to be written.");
+            assertEquals("test-product-buffer", productRepository.findById(otherId).orElseThrow().getName(), "Other update is expected to stay pending.");
+
+            // Test - Pending updates are expected to be written on shutdown.
+            productUpdateBuffer.submit(PRODUCT_ID, new ProductUpdateDto(true, "test-product-buffer-4", new BigDecimal("16")));
+            productUpdateBuffer.destroy();
+            assertEquals("test-product-buffer-4", productRepository.findById(PRODUCT_ID).orElseThrow().getName(), "Product is expected to be written on shutdown.");
+
+            // Test - Update is expected to be rejected when the buffer is full.
+            var fullUpdateBuffer = new ProductUpdateBuffer(productRepository, productQueryMetrics, transactionTemplate,
+                    applicationEventPublisher, meterRegistry, Duration.ofHours(1), 0);
+            try {
+                assertThrows(ServiceUnavailableException.class,
+                        () -> fullUpdateBuffer.submit(PRODUCT_ID, new ProductUpdateDto(true, "test-product-buffer-5", new BigDecimal("17"))));
+                assertEquals(1, meterRegistry.counter("product.update-buffer.rejected").count(), "One rejected update is expected.");
+            } finally {
+                fullUpdateBuffer.destroy();
+            }
+        } finally {
+            productUpdateBuffer.destroy();
+            productRepository.deleteById(otherId);
+        }
+    }
+
+    /**
+     * Test product delta pagination.
+     */
+    @Test
+    @DisplayName("Test product delta pagination")
+    void testProductDeltaPagination() throws Exception {
+        var productDeltaService = new ProductDeltaService(productRepository, productTombstoneRepository, productQueryMetrics,
+                Duration.ZERO, Duration.ofDays(30));
+
+        // Create two new products, update the first one and delete the second one.
+        var updatedSince = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        var firstResponse = testRestTemplate.postForEntity("/products",
+                new ProductCreateDto(null, true, "test-product-delta-1", new BigDecimal("10")), ProductDto.class);
+        var secondResponse = testRestTemplate.postForEntity("/products",
+                new ProductCreateDto(null, true, "test-product-delta-2", new BigDecimal("10")), ProductDto.class);
+        var firstId = Objects.requireNonNull(firstResponse.getBody()).getId();
+        var secondId = Objects.requireNonNull(secondResponse.getBody()).getId();
+        var productUpdateDto = new ProductUpdateDto(true, "test-product-delta-3", new BigDecimal("11"));
+        testRestTemplate.exchange("/products/" + firstId, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), String.class);
+        testRestTemplate.exchange("/products/" + secondId, HttpMethod.DELETE, null, String.class);
+
+        // Test - Updated product is expected first, without the deleted product.
+        var firstPage = productDeltaService.findAllChanged(updatedSince, null, 1);
+        assertEquals(1, firstPage.getObjects().size(), "One change is expected.");
+        assertEquals(firstId, firstPage.getObjects().get(0).getId(), "Updated product is expected.");
+        assertEquals("test-product-delta-3", firstPage.getObjects().get(0).getName(), "Updated product name is expected.");
+        assertNull(firstPage.getObjects().get(0).getDeleted(), "Updated product is expected not to be deleted.");
+        assertTrue(firstPage.getHasNext(), "Next page is expected.");
+
+        // Test - Deleted product is expected to be read from the cursor.
+        var secondPage = productDeltaService.findAllChanged(null, firstPage.getNext(), 1);
+        assertEquals(1, secondPage.getObjects().size(), "One change is expected.");
+        assertEquals(secondId, secondPage.getObjects().get(0).getId(), "Deleted product is expected.");
+        assertEquals(secondResponse.getBody().getCode(), secondPage.getObjects().get(0).getCode(), "Deleted product code is expected.");
+        assertTrue(secondPage.getObjects().get(0).getDeleted(), "Product is expected to be deleted.");
+
+        // Test - No changes are expected after the last change, with the same cursor to resume from.
+        var lastPage = productDeltaService.findAllChanged(null, secondPage.getNext(), 1);
+        assertTrue(lastPage.getObjects().isEmpty(), "No changes are expected.");
+        assertFalse(lastPage.getHasNext(), "No next page is expected.");
+        assertEquals(secondPage.getNext(), lastPage.getNext(), "Same cursor is expected.");
+
+        // Test - Missing and expired positions are expected to be rejected.
+        var missingResponse = testRestTemplate.getForEntity("/products?pagination=DELTA", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, missingResponse.getStatusCode());
+        var expiredResponse = testRestTemplate.getForEntity("/products?pagination=DELTA&updated-since=2000-01-01T00:00:00Z", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, expiredResponse.getStatusCode());
+    }
+
+    /**
+     * Test product change feed.
+     */
+    @Test
+    @DisplayName("Test product change feed")
+    void testProductChangeFeed() throws Exception {
+        var httpClient = HttpClient.newHttpClient();
+        var changesUri = URI.create(testRestTemplate.getRootUri() + "/products/changes");
+
+        // Subscribe before creating a new product.
+        var changesResponse = httpClient.send(HttpRequest.newBuilder(changesUri).build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(HttpStatus.OK.value(), changesResponse.statusCode());
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-changes", new BigDecimal("10"));
+        var createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+
+        // Test - Created product is expected to be sent.
+        var created = readChanges(changesResponse.body(), PRODUCT_ID, 1);
+        assertTrue(created.get(0).endsWith("{\"type\":\"CREATED\",\"id\":" + PRODUCT_ID + "}"), "Created change is expected.");
+
+        // Test - Changes after the last received event are expected to be sent on reconnect.
+        var productUpdateDto = new ProductUpdateDto(true, "test-product-changes-2", new BigDecimal("11"));
+        testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), String.class);
+        testRestTemplate.exchange("/products/" + PRODUCT_ID, HttpMethod.DELETE, null, String.class);
+        var lastEventId = created.get(0).substring(0, created.get(0).indexOf(' '));
+        var resumedResponse = httpClient.send(HttpRequest.newBuilder(changesUri).header("Last-Event-ID", lastEventId).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        var resumed = readChanges(resumedResponse.body(), PRODUCT_ID, 2);
+        assertTrue(resumed.get(0).endsWith("{\"type\":\"UPDATED\",\"id\":" + PRODUCT_ID + "}"), "Updated change is expected.");
+        assertTrue(resumed.get(1).endsWith("{\"type\":\"DELETED\",\"id\":" + PRODUCT_ID + "}"), "Deleted change is expected.");
+
+        // Test - Unknown last event is expected to be answered with a reset event.
+        var resetResponse = httpClient.send(HttpRequest.newBuilder(changesUri).header("Last-Event-ID", "unknown-1").build(),
+                HttpResponse.BodyHandlers.ofLines());
+        var reset = CompletableFuture.supplyAsync(() -> resetResponse.body().filter(line -> line.startsWith("event:")).findFirst())
+                .get(10, TimeUnit.SECONDS);
+        assertEquals("event:reset", reset.orElseThrow(), "Reset event is expected.");
+
+        // Test - Import of more products than the change buffer holds is expected not to reset the subscriber.
+        var ndjson = new StringBuilder();
+        for (var index = 0; index < 12000; index++) {
+            ndjson.append("{\"name\": \"test-product-changes-import\", \"price\": 1}\n");
+        }
+        var ndjsonHeaders = new HttpHeaders();
+        ndjsonHeaders.setContentType(MediaType.APPLICATION_NDJSON);
+        var importChangesResponse = httpClient.send(HttpRequest.newBuilder(changesUri).build(), HttpResponse.BodyHandlers.ofLines());
+        try {
+            var importResponse = testRestTemplate.postForEntity("/products/import", new HttpEntity<>(ndjson.toString(), ndjsonHeaders), ProductImportResultDto.class);
+            assertEquals(12000, Objects.requireNonNull(importResponse.getBody()).getImported(), "All products are expected to be imported.");
+            createResponse = testRestTemplate.postForEntity("/products", productCreateDto, ProductDto.class);
+            PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+            var createdId = PRODUCT_ID;
+            var lines = CompletableFuture.supplyAsync(() -> {
+                var received = new ArrayList<String>();
+                for (var iterator = importChangesResponse.body().iterator(); iterator.hasNext(); ) {
+                    var line = iterator.next();
+                    received.add(line);
+                    if (line.endsWith("{\"type\":\"CREATED\",\"id\":" + createdId + "}")) {
+                        break;
+                    }
+                }
+                return received;
+            }).get(10, TimeUnit.SECONDS);
+            assertFalse(lines.contains("event:reset"), "Reset event is not expected.");
+            assertEquals(3, lines.stream().filter(line -> line.contains("\"type\":\"IMPORTED\"")).count(), "One imported change per chunk is expected.");
+        } finally {
+            importChangesResponse.body().close();
+            productRepository.delete(ProductRepository.filter("test-product-changes-import", null, null, null));
+        }
+
+        changesResponse.body().close();
+        resumedResponse.body().close();
+        resetResponse.body().close();
+    }
+
+    /**
+     * Test reactive product endpoints.
+     */
+    @Test
+    @DisplayName("Test reactive product endpoints")
+    void testReactiveProductEndpoints() {
+
+        // Test - Product is expected to be created and validated by the same rules.
+        var productCreateDto = new ProductCreateDto(null, true, "test-product-reactive", new BigDecimal("10"));
+        var createResponse = testRestTemplate.postForEntity("/v2/products", productCreateDto, ProductDto.class);
+        assertEquals(HttpStatus.CREATED, createResponse.getStatusCode());
+        PRODUCT_ID = Objects.requireNonNull(createResponse.getBody()).getId();
+        assertNotNull(PRODUCT_ID, "Product id is expected.");
+        assertNotNull(createResponse.getBody().getCode(), "Product code is expected.");
+        var invalidResponse = testRestTemplate.postForEntity("/v2/products", new ProductCreateDto(null, true, " ", new BigDecimal("10")), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, invalidResponse.getStatusCode());
+
+        // Test - Product is expected to be read by id and streamed by filters.
+        var getResponse = testRestTemplate.getForEntity("/v2/products/" + PRODUCT_ID, ProductDto.class);
+        assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+        assertEquals("test-product-reactive", Objects.requireNonNull(getResponse.getBody()).getName(), "Product name is expected to match.");
+        var streamResponse = testRestTemplate.getForEntity("/v2/products?name=TEST-PRODUCT-REACTIVE&active=true", String.class);
+        assertEquals(HttpStatus.OK, streamResponse.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, streamResponse.getHeaders().getContentType());
+        var lines = Objects.requireNonNull(streamResponse.getBody()).split("\n");
+        assertEquals(1, lines.length, "A single streamed product is expected.");
+        assertTrue(lines[0].contains("\"id\":" + PRODUCT_ID), "Streamed product is expected to match.");
+
+        // Test - Update is expected to be visible and to invalidate the cached product.
+        testRestTemplate.getForEntity("/products/" + PRODUCT_ID, ProductDto.class);
+        var productUpdateDto = new ProductUpdateDto(false, "test-product-reactive-2", new BigDecimal("11"));
+        var putResponse = testRestTemplate.exchange("/v2/products/" + PRODUCT_ID, HttpMethod.PUT, new HttpEntity<>(productUpdateDto), String.class);
+        assertEquals(HttpStatus.NO_CONTENT, putResponse.getStatusCode());
+        var updatedProduct = Objects.requireNonNull(testRestTemplate.getForEntity("/products/" + PRODUCT_ID, ProductDto.class).getBody());
+        assertEquals("test-product-reactive-2", updatedProduct.getName(), "Updated product name is expected.");
+        assertNotNull(updatedProduct.getUpdated(), "Product update timestamp is expected.");
+
+        // Test - Product is expected to be deleted once.
+        var deleteResponse = testRestTemplate.exchange("/v2/products/" + PRODUCT_ID, HttpMethod.DELETE, null, String.class);
+        assertEquals(HttpStatus.NO_CONTENT, deleteResponse.getStatusCode());
+        var deletedResponse = testRestTemplate.exchange("/v2/products/" + PRODUCT_ID, HttpMethod.DELETE, null, String.class);
+        assertEquals(HttpStatus.NOT_FOUND, deletedResponse.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, testRestTemplate.getForEntity("/v2/products/" + PRODUCT_ID, String.class).getStatusCode());
+    }
+
+    /**
+     * Performs a conditional GET request.
+     *
+     * @param url  request url
+     * @param eTag entity tag of the previously read representation
+     * @return {@link ResponseEntity} with response body
+     */
+    private ResponseEntity<String> getConditionally(String url, String eTag) {
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        return testRestTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    /**
+     * Reads changes of a product from a change feed stream.
+     *
+     * @param lines     lines of the change feed stream
+     * @param productId product id
+     * @param count     number of changes to read
+     * @return changes as event id and data separated by a space
+     * @throws Exception when changes are not received in time
+     */
+    private static List<String> readChanges(Stream<String> lines, long productId, int count) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            var changes = new ArrayList<String>();
+            var eventId = "";
+            for (var iterator = lines.iterator(); changes.size() < count && iterator.hasNext(); ) {
+                var line = iterator.next();
+                if (line.startsWith("id:")) {
+                    eventId = line.substring(3);
+                } else if (line.startsWith("data:") && line.endsWith("\"id\":" + productId + "}")) {
+                    changes.add(eventId + " " + line.substring(5));
+                }
+            }
+            return changes;
+        }).get(10, TimeUnit.SECONDS);
+    }
 }
@@ -1,25 +1,63 @@
 package com.fripop.product.ws;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fripop.product.ws.config.PersistenceConfiguration;
+import com.fripop.product.ws.config.ReplicaRoutingDataSource;
+import com.fripop.product.ws.dto.CapturedRequestDto;
 import com.fripop.product.ws.dto.ProductCreateDto;
+import com.fripop.product.ws.dto.ProductDto;
 import com.fripop.product.ws.dto.ProductUpdateDto;
+import com.fripop.product.ws.exception.BadRequestException;
 import com.fripop.product.ws.exception.NotFoundException;
 import com.fripop.product.ws.mapper.ProductMapper;
 import com.fripop.product.ws.mapper.ProductMapperImpl;
 import com.fripop.product.ws.model.Product;
 import com.fripop.product.ws.repository.ProductRepository;
+import com.fripop.product.ws.service.ProductCountEstimator;
+import com.fripop.product.ws.service.ProductQueryMetrics;
 import com.fripop.product.ws.service.ProductService;
+import com.fripop.product.ws.util.ProductCursor;
+import com.fripop.product.ws.util.RequestCaptureFilter;
+import com.fripop.product.ws.util.TimeOrderedUuid;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -47,7 +85,9 @@ public class ProductServiceUnitTest {
 
         // Mock product service to call real methods.
         productService = Mockito.mock(ProductService.class, Mockito.withSettings()
-                .useConstructor(productRepository, productMapper).defaultAnswer(CALLS_REAL_METHODS));
+                .useConstructor(productRepository, productMapper, Validation.buildDefaultValidatorFactory().getValidator(),
+                        Mockito.mock(ProductCountEstimator.class), Mockito.mock(ApplicationEventPublisher.class),
+                        new ProductQueryMetrics(new SimpleMeterRegistry())).defaultAnswer(CALLS_REAL_METHODS));
     }
 
     /**
@@ -107,10 +147,8 @@ public class ProductServiceUnitTest {
     @DisplayName("Test product mapstruct mappings")
     void testProductUpdate() throws NotFoundException {
 
-        // Make find call to the product repository return the following product.
-        var existingProduct = new Product();
-        existingProduct.setId(1L);
-        when(productRepository.findRequiredById(anyLong())).thenReturn(existingProduct);
+        // Make update call to the product repository update a single product with id 1.
+        when(productRepository.updateById(eq(1L), any(), any(), any(), any())).thenReturn(1);
 
         // Prepare the product update data.
         var productUpdateDto = new ProductUpdateDto();
@@ -120,5 +158,234 @@ public class ProductServiceUnitTest {
 
         // Preform mock product update.
         productService.update(1L, productUpdateDto);
+        verify(productRepository).updateById(eq(1L), eq(false), eq("test-update"), eq(new BigDecimal("123.41")), notNull());
+        verify(productRepository, never()).findById(anyLong());
+
+        // Updating a product that does not exist is expected to fail.
+        assertThrows(NotFoundException.class, () -> productService.update(2L, productUpdateDto),
+                "Update of non-existing product is expected to fail.");
+    }
+
+    /**
+     * Test product find method.
+     *
+     * @throws NotFoundException that is not expected
+     */
+    @Test
+    @DisplayName("Test product find")
+    void testProductFind() throws NotFoundException {
+
+        // Make find call to the product repository return the following product projection.
+        var existingProductDto = new ProductDto(1L, "test-1234", null, null, true, "test", new BigDecimal("12.5"));
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.of(existingProductDto));
+        when(productRepository.findDtoById(2L)).thenReturn(Optional.empty());
+
+        // Test - Product projection is expected to be returned without mapping an entity.
+        assertSame(existingProductDto, productService.findRequired(1L), "Product projection is expected to be returned.");
+        verify(productRepository, never()).findById(anyLong());
+
+        // Test - Missing product is expected to be rejected.
+        assertThrows(NotFoundException.class, () -> productService.findRequired(2L));
+    }
+
+    /**
+     * Test product batch create method.
+     */
+    @Test
+    @DisplayName("Test product batch create")
+    void testProductBatchCreate() {
+
+        // Make persist call to the product repository assign sequential ids.
+        var persistedProducts = new ArrayList<Product>();
+        doAnswer(invocation -> {
+            Collection<Product> products = invocation.getArgument(0);
+            products.forEach(product -> {
+                product.setId(100L + persistedProducts.size());
+                persistedProducts.add(product);
+            });
+            return null;
+        }).when(productRepository).persistAll(any());
+
+        // Prepare a valid, an invalid and another valid product.
+        var validProductCreateDto = new ProductCreateDto(null, true, "test-1", new BigDecimal("12.5"));
+        var invalidProductCreateDto = new ProductCreateDto(null, true, " ", new BigDecimal("-1"));
+        var otherValidProductCreateDto = new ProductCreateDto("test-code", false, "test-2", new BigDecimal("3"));
+
+        // Preform batch create and validate that results are in the input order.
+        var response = productService.createAll(List.of(validProductCreateDto, invalidProductCreateDto, otherValidProductCreateDto));
+        assertEquals(3L, response.getTotalNumber(), "Result for every item is expected.");
+        assertEquals(2, persistedProducts.size(), "Only valid products are expected to be persisted.");
+
+        var results = response.getObjects();
+        assertEquals(0, results.get(0).getIndex(), "Result index is expected to match.");
+        assertEquals(100L, results.get(0).getId(), "First valid product id is expected.");
+        assertNull(results.get(0).getErrors(), "Valid product is not expected to have errors.");
+
+        assertEquals(1, results.get(1).getIndex(), "Result index is expected to match.");
+        assertNull(results.get(1).getId(), "Invalid product is not expected to be created.");
+        assertEquals(2, results.get(1).getErrors().size(), "Name and price errors are expected.");
+
+        assertEquals(2, results.get(2).getIndex(), "Result index is expected to match.");
+        assertEquals(101L, results.get(2).getId(), "Second valid product id is expected.");
+        assertEquals("test-code", persistedProducts.get(1).getCode(), "Product code is expected to match.");
+    }
+
+    /**
+     * Test keyset pagination cursor encoding.
+     *
+     * @throws BadRequestException that is not expected
+     */
+    @Test
+    @DisplayName("Test keyset pagination cursor encoding")
+    void testProductCursor() throws BadRequestException {
+
+        // Prepare the last product of a page.
+        var product = new ProductDto();
+        product.setId(42L);
+        product.setName("test:name");
+        product.setPrice(new BigDecimal("12.50"));
+        product.setCreated(Timestamp.valueOf(LocalDateTime.of(2025, 1, 27, 12, 10, 10, 123456000)));
+
+        // Test - Cursors are expected to be decoded to the same position.
+        for (var order : List.of(Sort.Order.asc("id"), Sort.Order.desc("name"), Sort.Order.asc("price"), Sort.Order.desc("created"))) {
+            var cursor = ProductCursor.decode(ProductCursor.of(product, order).encode());
+            assertEquals(order.getProperty(), cursor.getProperty(), "Cursor property is expected to match.");
+            assertEquals(order.getDirection(), cursor.getDirection(), "Cursor direction is expected to match.");
+            assertEquals(product.getId(), cursor.getId(), "Cursor id is expected to match.");
+            assertEquals(Sort.by(order).and(Sort.by(order.getDirection(), "id")).stream().distinct().toList(),
+                    cursor.toSort().toList(), "Cursor sort is expected to end with id.");
+        }
+        assertEquals(product.getCreated(), ProductCursor.decode(ProductCursor.of(product, Sort.Order.asc("created")).encode()).getValue(),
+                "Cursor timestamp is expected to keep its precision.");
+
+        // Test - Invalid cursor is expected to be rejected.
+        assertThrows(BadRequestException.class, () -> ProductCursor.decode("invalid"));
+    }
+
+    /**
+     * Test time-ordered product code generation.
+     *
+     * @throws InterruptedException that is not expected
+     */
+    @Test
+    @DisplayName("Test time-ordered product code generation")
+    void testProductCodeGeneration() throws InterruptedException {
+
+        // Test - Generated codes are expected to be version 7 UUIDs.
+        var first = TimeOrderedUuid.generate();
+        assertEquals(7, first.version(), "Version 7 is expected.");
+        assertEquals(2, first.variant(), "IETF variant is expected.");
+        assertEquals(first, UUID.fromString(first.toString()), "Code is expected to be a valid UUID.");
+
+        // Test - Codes generated later are expected to sort after the earlier ones.
+        Thread.sleep(2);
+        var second = TimeOrderedUuid.generate();
+        assertTrue(first.toString().compareTo(second.toString()) < 0, "Later code is expected to sort after the earlier one.");
+
+        // Test - Product is expected to get a generated code only when it has none.
+        var product = new Product();
+        product.onCreate();
+        assertEquals(7, UUID.fromString(product.getCode()).version(), "Generated code is expected.");
+        product.setCode("test-code");
+        product.onCreate();
+        assertEquals("test-code", product.getCode(), "Provided code is expected to be kept.");
+    }
+
+    /**
+     * Test routing of connections to the primary and the replicas.
+     *
+     * @throws SQLException that is not expected
+     */
+    @Test
+    @DisplayName("Test replica routing")
+    void testReplicaRouting() throws SQLException {
+        var primary = Mockito.mock(HikariDataSource.class);
+        var primaryConnection = Mockito.mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var replica = Mockito.mock(HikariDataSource.class);
+        var replicaConnection = Mockito.mock(Connection.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ReplicaRoutingDataSource> replicaDataSource = Mockito.mock(ObjectProvider.class);
+        when(replicaDataSource.getIfAvailable()).thenReturn(new ReplicaRoutingDataSource(primary, List.of(replica)));
+        var dataSource = new PersistenceConfiguration().dataSource(primary, replicaDataSource);
+
+        // Test - Read-only transaction is expected to read from the replica.
+        try (var connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+        verify(replicaConnection).createStatement();
+        verify(primaryConnection, never()).createStatement();
+
+        // Test - Read-write transaction is expected to use the primary.
+        try (var connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+        verify(primaryConnection).createStatement();
+
+        // Test - Read-only transaction is expected to read from the primary while it is required.
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        try (var connection = dataSource.getConnection()) {
+            assertTrue(ReplicaRoutingDataSource.isPrimaryRequired(), "Primary is expected to be required.");
+            connection.setReadOnly(true);
+            connection.createStatement();
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(false);
+        }
+        verify(primaryConnection, times(2)).createStatement();
+        verify(replicaConnection).createStatement();
+        assertFalse(ReplicaRoutingDataSource.isPrimaryRequired(), "Primary is expected not to be required anymore.");
+    }
+
+    /**
+     * Test request capture.
+     *
+     * @throws Exception that is not expected
+     */
+    @Test
+    @DisplayName("Test request capture")
+    void testRequestCapture() throws Exception {
+        var file = Files.createTempFile("captured-requests", ".jsonl");
+        var objectMapper = new ObjectMapper();
+        var requestCaptureFilter = new RequestCaptureFilter(objectMapper, new SimpleMeterRegistry(), 1.0, 16, file);
+
+        try {
+
+            // Capture a request with a small body and a request with a body larger than the maximum size.
+            for (var body : List.of("{\"name\":\"a\"}", "{\"name\":\"" + "a".repeat(32) + "\"}")) {
+                var request = new MockHttpServletRequest("POST", "/productws/products");
+                request.setContextPath("/productws");
+                request.setQueryString("fields=id");
+                request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                request.setContent(body.getBytes(StandardCharsets.UTF_8));
+                var response = new MockHttpServletResponse();
+                requestCaptureFilter.doFilter(request, response, (filteredRequest, filteredResponse) -> {
+                    filteredRequest.getInputStream().readAllBytes();
+                    ((HttpServletResponse) filteredResponse).setStatus(HttpStatus.CREATED.value());
+                });
+            }
+        } finally {
+            requestCaptureFilter.destroy();
+        }
+
+        // Test - Every sampled request is expected to be written as a JSON line.
+        var lines = Files.readAllLines(file);
+        assertEquals(2, lines.size(), "Two captured requests are expected.");
+        var captured = objectMapper.readValue(lines.get(0), CapturedRequestDto.class);
+        assertEquals("POST", captured.getMethod());
+        assertEquals("/products", captured.getPath(), "Path without context path is expected.");
+        assertEquals("fields=id", captured.getQuery());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, captured.getContentType());
+        assertEquals("{\"name\":\"a\"}", captured.getBody());
+        assertFalse(captured.getBodyTruncated(), "Body is expected not to be truncated.");
+        assertEquals(HttpStatus.CREATED.value(), captured.getStatus());
+
+        // Test - Body larger than the maximum size is expected to be left out.
+        var truncated = objectMapper.readValue(lines.get(1), CapturedRequestDto.class);
+        assertNull(truncated.getBody(), "Truncated body is not expected.");
+        assertTrue(truncated.getBodyTruncated(), "Body is expected to be truncated.");
+        Files.delete(file);
     }
 }